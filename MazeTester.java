@@ -25,22 +25,30 @@ class MazeTester {
 	 */
 	protected static final PrintStream outStream = System.out;
 
+	/**
+	 * Width of a cell, in pixels, of images written.
+	 */
+	protected static final int PNG_PIXELS_PER_CELL = 16;
+
 	/**
 	 * Print help/usage message.
 	 */
 	public static void usage(String progName) {
-		System.err.println(progName + ": [input fileName] <visualize maze>");
+		System.err.println(progName + ": [input fileName] <visualize maze> [image fileName]");
 		System.err.println("<visualize maze> = <y | n>");
+		System.err.println("[image fileName] = optional PNG image of the solved maze, written without a screen,");
+		System.err.println("                   or SVG drawing of the maze if it ends with .svg, drawn instead of the screen");
 		System.exit(1);
 	} // end of usage()
 
 	/**
 	 * Main function of tester.
-	 * @param args Two arguments which are input filename and "y/n" indicating whether to visualize the maze. 
+	 * @param args Two arguments which are input filename and "y/n" indicating whether to visualize the maze,
+	 * and optionally the name of a PNG or SVG file to write the solved maze to.
 	 */
 	public static void main(String[] args) {
 		// read command line arguments
-		if (args.length != 2) {
+		if (args.length != 2 && args.length != 3) {
 			System.err.println("Incorrect number of arguments.");
 			usage(progName);
 		}
@@ -72,6 +80,8 @@ class MazeTester {
 		int entC = 0;
 		int exitR = 0;
 		int exitC = 1;
+		// place entrance and exit on the longest path between edge cells
+		boolean isDiameter = false;
 		List<int[]> tunnelList = new ArrayList<int[]>();
 		
 		File fin = new File(fName);
@@ -87,10 +97,16 @@ class MazeTester {
 			rowNum = Integer.parseInt(scanner.next());
 			colNum = Integer.parseInt(scanner.next());
 			
-			entR = Integer.parseInt(scanner.next());
-			entC = Integer.parseInt(scanner.next());
-			exitR = Integer.parseInt(scanner.next());
-			exitC = Integer.parseInt(scanner.next());
+			// "diameter" in place of the entrance and exit coordinates
+			String entToken = scanner.next();
+			if (entToken.equals("diameter")) {
+				isDiameter = true;
+			} else {
+				entR = Integer.parseInt(entToken);
+				entC = Integer.parseInt(scanner.next());
+				exitR = Integer.parseInt(scanner.next());
+				exitC = Integer.parseInt(scanner.next());
+			}
 
 			// add tunnels
 			while (scanner.hasNext()) {
@@ -159,13 +175,32 @@ class MazeTester {
 		// generate maze
 		mazeGen.generateMaze(maze);
 
+		// choose what the maze is drawn with: an SVG document if one is asked
+		// for, otherwise the screen, at a bounded frame rate, or nothing at all
+		boolean isSvg = args.length == 3 && args[2].endsWith(".svg");
+		SvgRenderer svg = null;
+		if (isSvg) {
+			svg = new SvgRenderer(PNG_PIXELS_PER_CELL);
+			maze.renderer = svg;
+		}
+		else if (isVisu)
+			maze.renderer = new StdDrawRenderer(60);
+		else
+			maze.renderer = new NullRenderer();
+
 		// update whether maze should be visualised
-		maze.isVisu = isVisu;
+		maze.isVisu = isVisu || isSvg;
 
 		// check if maze is perfect
 		boolean isPerfectMaze = maze.isPerfect();
 		
 		outStream.println("The maze is " + (isPerfectMaze ? "" : "not ") + "perfect!");
+
+		// move entrance and exit to the ends of the longest edge-to-edge path
+		if (isDiameter && isPerfectMaze) {
+			int length = new DiameterPlacement().place(maze);
+			outStream.println("Entrance and exit placed " + length + " moves apart.");
+		}
 		
 		// draw maze (this depends on maze.isVisu)
 		maze.draw();
@@ -180,6 +215,45 @@ class MazeTester {
 			case "recurBack":
 				mazeSolver = new RecursiveBacktrackerSolver();
 				break;
+			case "recurBackGoal":
+				mazeSolver = new RecursiveBacktrackerSolver(true);
+				break;
+			case "aStar":
+				mazeSolver = new AStarSolver();
+				break;
+			case "deadEnd":
+				mazeSolver = new DeadEndFillingSolver();
+				break;
+			case "wallFollow":
+				mazeSolver = new WallFollowerSolver();
+				break;
+			case "tremaux":
+				mazeSolver = new TremauxSolver();
+				break;
+			case "parallelBFS":
+				mazeSolver = new ParallelBFSSolver();
+				break;
+			case "parallelBiDir":
+				mazeSolver = new ParallelBiDirectionalBFSSolver();
+				break;
+			case "junction":
+				mazeSolver = new JunctionGraphSolver();
+				break;
+			case "hpa":
+				mazeSolver = new HierarchicalSolver();
+				break;
+			case "alt":
+				mazeSolver = new LandmarkSolver();
+				break;
+			case "dStarLite":
+				mazeSolver = new DStarLiteSolver();
+				break;
+			case "weighted":
+				mazeSolver = new WeightedDijkstraSolver();
+				break;
+			case "bitBFS":
+				mazeSolver = new BitBFSSolver();
+				break;
                         // sample solver to help you get started
                         case "sample":
                                 mazeSolver = new SampleSolver();
@@ -200,6 +274,12 @@ class MazeTester {
 					outStream.println("The maze has been solved!");
 					// display number of cells visited for solver
 					outStream.println("Number of cells visited = " + mazeSolver.cellsExplored());
+					// check the returned path directly when the solver records one
+					Path path = mazeSolver.path();
+					if (path != null) {
+						outStream.println("Length of returned path = " + path.length());
+						outStream.println("The returned path is " + (path.isValid(maze) ? "" : "not ") + "valid!");
+					}
 					// show results from validation
 					outStream.println("Validation result:");
 					boolean isValid = maze.validate();
@@ -209,5 +289,28 @@ class MazeTester {
 				}
 			}
 		}
+
+		// put the footprints not shown yet on screen
+		maze.renderer.show();
+
+		// write the maze with its footprints as an image
+		if (isSvg) {
+			try (Writer out = new BufferedWriter(new FileWriter(args[2]))) {
+				svg.write(out);
+			} catch (IOException e) {
+				System.err.println("Cannot write image " + args[2] + ": " + e.getMessage());
+				System.exit(1);
+			}
+			outStream.println("Image written to " + args[2] + ".");
+		}
+		else if (args.length == 3) {
+			try (OutputStream out = new BufferedOutputStream(new FileOutputStream(args[2]))) {
+				new BandedPngWriter(PNG_PIXELS_PER_CELL).write(maze, out);
+			} catch (IOException e) {
+				System.err.println("Cannot write image " + args[2] + ": " + e.getMessage());
+				System.exit(1);
+			}
+			outStream.println("Image written to " + args[2] + ".");
+		}
 	} // end of main()
 } // end of class MazeTester
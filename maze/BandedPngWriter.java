@@ -0,0 +1,214 @@
+package maze;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.Adler32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes the image of a maze as a PNG file without ever holding the whole
+ * image, so that mazes of tens of thousands of cells a side can be exported.
+ *
+ * The image is cut into horizontal bands of pixel rows. Worker threads draw
+ * each band with a RasterRenderer and compress it with a Deflater of its
+ * own, ending every band but the last with a sync flush so that the
+ * compressed bands put one after the other form a single deflate stream.
+ * The calling thread writes the bands out in order, inside one zlib stream
+ * whose Adler-32 checksum is combined from those of the bands. At most a
+ * few bands per thread are in memory at any time.
+ */
+public class BandedPngWriter {
+
+	/**
+	 * Number of pixel rows of a band by default.
+	 */
+	public static final int DEFAULT_BAND_HEIGHT = 256;
+
+	// zlib header: deflate with a 32K window, no preset dictionary
+	private static final byte ZLIB_HEADER[] = { 0x78, 0x01 };
+	// largest prime below 65536, the modulus of Adler-32
+	private static final int ADLER_BASE = 65521;
+
+	private final int pixelsPerCell;
+	private final int bandHeight;
+	private final ForkJoinPool pool;
+	// pixel arrays of finished bands, for the next bands to draw into
+	private final ConcurrentLinkedQueue<int[]> buffers = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Writer drawing bands of DEFAULT_BAND_HEIGHT rows on the common
+	 * ForkJoinPool.
+	 * @param pixelsPerCell Width of a cell in pixels, at least 2.
+	 */
+	public BandedPngWriter(int pixelsPerCell) {
+		this(pixelsPerCell, DEFAULT_BAND_HEIGHT, ForkJoinPool.commonPool());
+	} // end of BandedPngWriter()
+
+
+	/**
+	 * @param pixelsPerCell Width of a cell in pixels, at least 2.
+	 * @param bandHeight Number of pixel rows of a band.
+	 * @param pool Pool drawing and compressing the bands.
+	 */
+	public BandedPngWriter(int pixelsPerCell, int bandHeight, ForkJoinPool pool) {
+		if (pixelsPerCell < 2)
+			throw new IllegalArgumentException("A cell must be at least 2 pixels wide.");
+		if (bandHeight < 1)
+			throw new IllegalArgumentException("A band must have at least one row.");
+		this.pixelsPerCell = pixelsPerCell;
+		this.bandHeight = bandHeight;
+		this.pool = pool;
+	} // end of BandedPngWriter()
+
+
+	/**
+	 * A band drawn and compressed.
+	 */
+	private static class Band {
+		final byte data[];
+		final int length;
+		// Adler-32 checksum and number of bytes of the band before compression
+		final long adler;
+		final long rawLength;
+
+		Band(ByteArrayOutputStream data, long adler, long rawLength) {
+			this.data = data.toByteArray();
+			this.length = this.data.length;
+			this.adler = adler;
+			this.rawLength = rawLength;
+		} // end of Band()
+	} // end of class Band
+
+
+	/**
+	 * Write the image of a maze, with the footprints recorded so far, as a
+	 * PNG file. The maze must not change until this returns.
+	 * @param maze The maze, one of NormalMaze, TunnelMaze or HexMaze.
+	 * @param out Stream to write to; it is not closed.
+	 * @throws IOException If writing fails.
+	 */
+	public void write(Maze maze, OutputStream out) throws IOException {
+		RasterRenderer renderer = new RasterRenderer(pixelsPerCell);
+		renderer.prepare(maze);
+		int width = renderer.width();
+		int height = renderer.height();
+		if ((long) width * bandHeight > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Band too large for one pixel array.");
+
+		PngWriter.writeHeader(out, width, height);
+		PngWriter.IdatWriter idat = new PngWriter.IdatWriter(out);
+		idat.write(ZLIB_HEADER, 0, ZLIB_HEADER.length);
+
+		// bands are written in order, with a few more queued per thread
+		int maxPending = 2 * pool.getParallelism();
+		ArrayDeque<Future<Band>> pending = new ArrayDeque<>();
+		long adler = 1;
+		try {
+			for (int top = 0; top < height; top += bandHeight) {
+				if (pending.size() == maxPending)
+					adler = writeBand(idat, pending.removeFirst().get(), adler);
+				int first = top;
+				int rows = Math.min(bandHeight, height - top);
+				boolean isLast = top + rows == height;
+				pending.addLast(pool.submit(() -> compressBand(renderer, first, rows, isLast)));
+			}
+			while (!pending.isEmpty())
+				adler = writeBand(idat, pending.removeFirst().get(), adler);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Image export was interrupted.", e);
+		}
+		catch (ExecutionException e) {
+			throw new IllegalStateException("A band failed.", e.getCause());
+		}
+		finally {
+			for (Future<Band> band : pending)
+				band.cancel(false);
+		}
+
+		byte checksum[] = new byte[4];
+		PngWriter.putInt(checksum, 0, (int) adler);
+		idat.write(checksum, 0, checksum.length);
+		idat.flush();
+		PngWriter.writeChunk(out, "IEND", checksum, 0, 0);
+	} // end of write()
+
+
+	/**
+	 * Write a band and fold its checksum into that of the bands before it.
+	 * @return Adler-32 checksum of the image data so far.
+	 */
+	private static long writeBand(PngWriter.IdatWriter idat, Band band, long adler) throws IOException {
+		idat.write(band.data, 0, band.length);
+		return combineAdler(adler, band.adler, band.rawLength);
+	} // end of writeBand()
+
+
+	/**
+	 * Draw and compress a band as raw deflate data, ended by a sync flush,
+	 * or by the final block for the last band.
+	 */
+	private Band compressBand(RasterRenderer renderer, int top, int rows, boolean isLast) {
+		int width = renderer.width();
+		int pixels[] = buffers.poll();
+		if (pixels == null || pixels.length < width * rows)
+			pixels = new int[width * rows];
+		try {
+			renderer.renderBand(pixels, top, rows);
+
+			Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+			Adler32 adler = new Adler32();
+			ByteArrayOutputStream data = new ByteArrayOutputStream();
+			byte row[] = new byte[1 + 3 * width];
+			byte buffer[] = new byte[PngWriter.CHUNK_SIZE];
+			for (int y = 0; y < rows; y++) {
+				PngWriter.packRow(pixels, y * width, width, row);
+				adler.update(row);
+				deflater.setInput(row);
+				while (!deflater.needsInput())
+					data.write(buffer, 0, deflater.deflate(buffer));
+			}
+			if (isLast) {
+				deflater.finish();
+				while (!deflater.finished())
+					data.write(buffer, 0, deflater.deflate(buffer));
+			}
+			else {
+				int n;
+				do {
+					n = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+					data.write(buffer, 0, n);
+				} while (n == buffer.length);
+			}
+			deflater.end();
+			return new Band(data, adler.getValue(), (long) rows * row.length);
+		}
+		finally {
+			buffers.add(pixels);
+		}
+	} // end of compressBand()
+
+
+	/**
+	 * Adler-32 checksum of two pieces of data put together, from the
+	 * checksums of the pieces and the length of the second one.
+	 */
+	static long combineAdler(long adler1, long adler2, long length2) {
+		long rem = length2 % ADLER_BASE;
+		long sum1 = adler1 & 0xFFFF;
+		long sum2 = rem * sum1 % ADLER_BASE;
+		sum1 += (adler2 & 0xFFFF) + ADLER_BASE - 1;
+		sum2 += ((adler1 >>> 16) & 0xFFFF) + ((adler2 >>> 16) & 0xFFFF) + ADLER_BASE - rem;
+		sum1 %= ADLER_BASE;
+		sum2 %= ADLER_BASE;
+		return (sum2 << 16) | sum1;
+	} // end of combineAdler()
+
+} // end of class BandedPngWriter
@@ -0,0 +1,479 @@
+package maze;
+
+import java.util.Arrays;
+
+/**
+ * Bit-parallel flood fill over the cells of a maze, 64 cells per long word.
+ *
+ * Every row of maze.map is a run of words, bit c of a row standing for map
+ * column c. The open walls are packed into masks per row: east[] has bit c set
+ * if cell (r, c) is open to (r, c + 1), up[] if it is open to (r + 1, c), and
+ * for hexagon mazes upRight[] if it is open to (r + 1, c + 1). Moving a whole
+ * word of cells one step is then a shift and an AND with a mask; tunnels are
+ * the only moves that do not fit in this pattern and are looked up one by one
+ * in a small sorted table.
+ *
+ * The masks are read from the walls when the object is built, so build a new
+ * one after walls are changed.
+ */
+public class BitFlood {
+
+	private final int numRows;
+	// number of map columns, and of words per row
+	private final int width;
+	private final int words;
+	private final int numCells;
+
+	private final long exists[];
+	private final long east[];
+	private final long up[];
+	// only for hexagon mazes, null otherwise
+	private final long upRight[];
+	private final long tunnelEnd[];
+	// sorted keys r * width + c of the tunnel ends, and the key of the other end
+	private final int tunnelKey[];
+	private final int tunnelTo[];
+
+	// state of the last flood() or search()
+	private final long allowed[];
+	private final long reached[];
+	private long frontier[];
+	private long next[];
+	// level of every reached cell modulo 3, as two bit planes
+	private final long levelBit0[];
+	private final long levelBit1[];
+	private int numReached;
+	private int targetDistance;
+
+	/**
+	 * Pack the walls of a maze whose map has already been initialised.
+	 * @param maze The maze to flood.
+	 */
+	public BitFlood(Maze maze) {
+		numRows = maze.sizeR;
+		width = maze.map[0].length;
+		words = (width + 63) >>> 6;
+		int total = numRows * words;
+
+		exists = new long[total];
+		east = new long[total];
+		up = new long[total];
+		upRight = maze.type == Maze.HEX ? new long[total] : null;
+		tunnelEnd = new long[total];
+
+		int count = 0;
+		int numEnds = 0;
+		for (int r = 0; r < numRows; r++) {
+			for (int c = 0; c < width; c++) {
+				Cell cell = maze.map[r][c];
+				if (cell == null)
+					continue;
+				count++;
+				int i = r * words + (c >>> 6);
+				long bit = 1L << c;
+				exists[i] |= bit;
+				if (isOpen(cell, Maze.EAST))
+					east[i] |= bit;
+				if (isOpen(cell, Maze.NORTH))
+					up[i] |= bit;
+				if (upRight != null && isOpen(cell, Maze.NORTHEAST))
+					upRight[i] |= bit;
+				if (cell.tunnelTo != null) {
+					tunnelEnd[i] |= bit;
+					numEnds++;
+				}
+			}
+		}
+		numCells = count;
+
+		// keys are produced in increasing order, so the table is sorted
+		tunnelKey = new int[numEnds];
+		tunnelTo = new int[numEnds];
+		for (int r = 0, k = 0; r < numRows && k < numEnds; r++) {
+			for (int c = 0; c < width; c++) {
+				Cell cell = maze.map[r][c];
+				if (cell != null && cell.tunnelTo != null) {
+					tunnelKey[k] = r * width + c;
+					tunnelTo[k++] = cell.tunnelTo.r * width + cell.tunnelTo.c;
+				}
+			}
+		}
+
+		allowed = new long[total];
+		reached = new long[total];
+		frontier = new long[total];
+		next = new long[total];
+		levelBit0 = new long[total];
+		levelBit1 = new long[total];
+	} // end of BitFlood()
+
+
+	private static boolean isOpen(Cell cell, int dir) {
+		return cell.neigh[dir] != null && !cell.wall[dir].present;
+	} // end of isOpen()
+
+
+	/**
+	 * @return Number of cells of the maze.
+	 */
+	public int numCells() {
+		return numCells;
+	} // end of numCells()
+
+
+	/**
+	 * @return Number of open walls plus number of tunnels, i.e. the number of
+	 * edges of the maze seen as a graph.
+	 */
+	public int numPassages() {
+		int count = 0;
+		for (int i = 0; i < exists.length; i++) {
+			count += Long.bitCount(east[i]) + Long.bitCount(up[i]);
+			if (upRight != null)
+				count += Long.bitCount(upRight[i]);
+		}
+		for (int k = 0; k < tunnelKey.length; k++)
+			if (tunnelTo[k] >= tunnelKey[k])
+				count++;
+		return count;
+	} // end of numPassages()
+
+
+	/**
+	 * Find every cell reachable from a source, without distances. Whole rows
+	 * are filled at once: inside a word, the runs of cells joined by open east
+	 * walls are filled in six shift-and-mask steps.
+	 * @param source Cell to start from; it is reached even if not allowed.
+	 * @param cellAllowed Cells that may be entered, indexed like map, or null for all.
+	 * @return Number of cells reached.
+	 */
+	public int flood(Cell source, boolean cellAllowed[][]) {
+		start(source, cellAllowed);
+
+		// rows waiting to be filled, with the seeds in their frontier words
+		int stack[] = new int[numRows];
+		boolean waiting[] = new boolean[numRows];
+		long rowFresh[] = new long[words];
+		int size = 0;
+		stack[size++] = source.r;
+		waiting[source.r] = true;
+		frontier[index(source.r, source.c)] |= 1L << source.c;
+
+		while (size > 0) {
+			int r = stack[--size];
+			waiting[r] = false;
+			int first = r * words;
+			fillRow(first);
+
+			// take the whole filled row first, as a tunnel may seed the same row
+			for (int w = 0; w < words; w++) {
+				int i = first + w;
+				rowFresh[w] = frontier[i] & ~reached[i];
+				frontier[i] = 0;
+				reached[i] |= rowFresh[w];
+				numReached += Long.bitCount(rowFresh[w]);
+			}
+
+			for (int w = 0; w < words; w++) {
+				int i = first + w;
+				long fresh = rowFresh[w];
+				if (fresh == 0)
+					continue;
+
+				if (r + 1 < numRows) {
+					if (seed(i + words, fresh & up[i]))
+						size = push(stack, waiting, size, r + 1);
+					if (upRight != null) {
+						long moved = fresh & upRight[i];
+						boolean added = seed(i + words, moved << 1);
+						if (w + 1 < words)
+							added |= seed(i + words + 1, moved >>> 63);
+						if (added)
+							size = push(stack, waiting, size, r + 1);
+					}
+				}
+				if (r > 0) {
+					if (seed(i - words, fresh & up[i - words]))
+						size = push(stack, waiting, size, r - 1);
+					if (upRight != null) {
+						boolean added = seed(i - words, (fresh >>> 1) & upRight[i - words]);
+						if (w > 0)
+							added |= seed(i - words - 1, (fresh << 63) & upRight[i - words - 1]);
+						if (added)
+							size = push(stack, waiting, size, r - 1);
+					}
+				}
+				for (long ends = fresh & tunnelEnd[i]; ends != 0; ends &= ends - 1) {
+					int other = tunnelTo[Arrays.binarySearch(tunnelKey, r * width + (w << 6) + Long.numberOfTrailingZeros(ends))];
+					int otherR = other / width;
+					if (seed(index(otherR, other % width), 1L << (other % width)))
+						size = push(stack, waiting, size, otherR);
+				}
+			}
+		}
+		return numReached;
+	} // end of flood()
+
+
+	/**
+	 * Add seeds to a frontier word, keeping only cells that are allowed and
+	 * not reached yet.
+	 * @return true if a seed was added.
+	 */
+	private boolean seed(int i, long bits) {
+		bits &= allowed[i] & ~reached[i] & ~frontier[i];
+		frontier[i] |= bits;
+		return bits != 0;
+	} // end of seed()
+
+
+	private static int push(int stack[], boolean waiting[], int size, int r) {
+		if (!waiting[r]) {
+			waiting[r] = true;
+			stack[size++] = r;
+		}
+		return size;
+	} // end of push()
+
+
+	/**
+	 * Grow the frontier words of a row, starting at index first, to every
+	 * allowed cell joined to them through open east walls in the row.
+	 * Inside a word, gen holds the cells filled so far and pro the cells that
+	 * can be entered from their neighbour; each step doubles the distance
+	 * covered, so six steps fill runs as long as the word.
+	 */
+	private void fillRow(int first) {
+		// eastward, carrying from each word into the next one
+		for (int w = 0; w < words; w++) {
+			int i = first + w;
+			long gen = frontier[i];
+			if (w > 0 && (frontier[i - 1] & east[i - 1]) < 0)
+				gen |= 1L & allowed[i];
+			long pro = (east[i] << 1) & allowed[i];
+			gen |= pro & (gen << 1);  pro &= pro << 1;
+			gen |= pro & (gen << 2);  pro &= pro << 2;
+			gen |= pro & (gen << 4);  pro &= pro << 4;
+			gen |= pro & (gen << 8);  pro &= pro << 8;
+			gen |= pro & (gen << 16); pro &= pro << 16;
+			gen |= pro & (gen << 32);
+			frontier[i] = gen & ~reached[i];
+		}
+		// then westward, carrying from each word into the previous one
+		for (int w = words - 1; w >= 0; w--) {
+			int i = first + w;
+			long gen = frontier[i];
+			if (w + 1 < words && (frontier[i + 1] & 1L) != 0)
+				gen |= east[i] & allowed[i] & (1L << 63);
+			long pro = east[i] & allowed[i];
+			gen |= pro & (gen >>> 1);  pro &= pro >>> 1;
+			gen |= pro & (gen >>> 2);  pro &= pro >>> 2;
+			gen |= pro & (gen >>> 4);  pro &= pro >>> 4;
+			gen |= pro & (gen >>> 8);  pro &= pro >>> 8;
+			gen |= pro & (gen >>> 16); pro &= pro >>> 16;
+			gen |= pro & (gen >>> 32);
+			frontier[i] = gen & ~reached[i];
+		}
+	} // end of fillRow()
+
+
+	/**
+	 * Breadth-first search from a source, one level of cells at a time. Only
+	 * the words holding cells of the current level are visited, and every
+	 * word of a level moves in all directions with a few shifts and masks.
+	 * @param source Cell to start from; it is reached even if not allowed.
+	 * @param target Cell whose distance is wanted, or null.
+	 * @param cellAllowed Cells that may be entered, indexed like map, or null for all.
+	 * @param stopAtTarget true to stop as soon as the target is reached.
+	 * @return Number of cells reached.
+	 */
+	public int search(Cell source, Cell target, boolean cellAllowed[][], boolean stopAtTarget) {
+		start(source, cellAllowed);
+
+		int targetWord = target == null ? -1 : index(target.r, target.c);
+		long targetBit = target == null ? 0 : 1L << target.c;
+		int current[] = new int[reached.length];
+		int upcoming[] = new int[reached.length];
+		int numCurrent = 0;
+
+		int i0 = index(source.r, source.c);
+		frontier[i0] = 1L << source.c;
+		reached[i0] = frontier[i0];
+		current[numCurrent++] = i0;
+		numReached = 1;
+		if (i0 == targetWord && (frontier[i0] & targetBit) != 0)
+			targetDistance = 0;
+
+		for (int level = 1; numCurrent > 0 && !(stopAtTarget && targetDistance >= 0); level++) {
+			int numUpcoming = 0;
+			for (int n = 0; n < numCurrent; n++) {
+				int i = current[n];
+				int r = i / words;
+				int w = i - r * words;
+				long f = frontier[i];
+				frontier[i] = 0;
+
+				long moved = f & east[i];
+				numUpcoming = add(upcoming, numUpcoming, i, moved << 1);
+				if (w + 1 < words)
+					numUpcoming = add(upcoming, numUpcoming, i + 1, moved >>> 63);
+				numUpcoming = add(upcoming, numUpcoming, i, (f >>> 1) & east[i]);
+				if (w > 0)
+					numUpcoming = add(upcoming, numUpcoming, i - 1, (f << 63) & east[i - 1]);
+
+				if (r + 1 < numRows) {
+					numUpcoming = add(upcoming, numUpcoming, i + words, f & up[i]);
+					if (upRight != null) {
+						moved = f & upRight[i];
+						numUpcoming = add(upcoming, numUpcoming, i + words, moved << 1);
+						if (w + 1 < words)
+							numUpcoming = add(upcoming, numUpcoming, i + words + 1, moved >>> 63);
+					}
+				}
+				if (r > 0) {
+					numUpcoming = add(upcoming, numUpcoming, i - words, f & up[i - words]);
+					if (upRight != null) {
+						numUpcoming = add(upcoming, numUpcoming, i - words, (f >>> 1) & upRight[i - words]);
+						if (w > 0)
+							numUpcoming = add(upcoming, numUpcoming, i - words - 1, (f << 63) & upRight[i - words - 1]);
+					}
+				}
+
+				for (long ends = f & tunnelEnd[i]; ends != 0; ends &= ends - 1) {
+					int other = tunnelTo[Arrays.binarySearch(tunnelKey, r * width + (w << 6) + Long.numberOfTrailingZeros(ends))];
+					numUpcoming = add(upcoming, numUpcoming, index(other / width, other % width), 1L << (other % width));
+				}
+			}
+
+			// the new level becomes the frontier
+			long set0 = (level % 3 & 1) != 0 ? -1L : 0;
+			long set1 = (level % 3 & 2) != 0 ? -1L : 0;
+			for (int n = 0; n < numUpcoming; n++) {
+				int i = upcoming[n];
+				long bits = next[i];
+				next[i] = 0;
+				frontier[i] = bits;
+				reached[i] |= bits;
+				levelBit0[i] |= bits & set0;
+				levelBit1[i] |= bits & set1;
+				numReached += Long.bitCount(bits);
+				if (i == targetWord && (bits & targetBit) != 0)
+					targetDistance = level;
+			}
+			int swap[] = current;
+			current = upcoming;
+			upcoming = swap;
+			numCurrent = numUpcoming;
+		}
+
+		// clear what is left of the frontier if the search stopped early
+		for (int n = 0; n < numCurrent; n++)
+			frontier[current[n]] = 0;
+		return numReached;
+	} // end of search()
+
+
+	/**
+	 * Add cells to the next level, keeping only cells that are allowed and
+	 * not reached yet.
+	 * @return New number of words listed in upcoming.
+	 */
+	private int add(int upcoming[], int size, int i, long bits) {
+		bits &= allowed[i] & ~reached[i];
+		if (bits == 0)
+			return size;
+		if (next[i] == 0)
+			upcoming[size++] = i;
+		next[i] |= bits;
+		return size;
+	} // end of add()
+
+
+	private void start(Cell source, boolean cellAllowed[][]) {
+		numReached = 0;
+		targetDistance = -1;
+		Arrays.fill(reached, 0);
+		Arrays.fill(levelBit0, 0);
+		Arrays.fill(levelBit1, 0);
+		if (cellAllowed == null) {
+			System.arraycopy(exists, 0, allowed, 0, exists.length);
+			return;
+		}
+		Arrays.fill(allowed, 0);
+		for (int r = 0; r < numRows; r++)
+			for (int c = 0; c < width; c++)
+				if (cellAllowed[r][c])
+					allowed[index(r, c)] |= 1L << c;
+		for (int i = 0; i < allowed.length; i++)
+			allowed[i] &= exists[i];
+	} // end of start()
+
+
+	private int index(int r, int c) {
+		return r * words + (c >>> 6);
+	} // end of index()
+
+
+	/**
+	 * @param r Row coordinate.
+	 * @param c Column coordinate in maze.map.
+	 * @return true if the last flood or search reached cell (r, c).
+	 */
+	public boolean isReached(int r, int c) {
+		return (reached[index(r, c)] & (1L << c)) != 0;
+	} // end of isReached()
+
+
+	/**
+	 * @return Number of cells reached by the last flood or search.
+	 */
+	public int numReached() {
+		return numReached;
+	} // end of numReached()
+
+
+	/**
+	 * @return Number of moves from the source to the target of the last
+	 * search, or -1 if the target was not reached.
+	 */
+	public int targetDistance() {
+		return targetDistance;
+	} // end of targetDistance()
+
+
+	/**
+	 * Walk back from the target of the last search to its source. Only the
+	 * level of each cell modulo 3 is kept, which is enough to tell the
+	 * neighbour one level closer to the source from the others.
+	 * @param target The target of the last search, which must have been reached.
+	 * @return Cells of a shortest path from the source to the target.
+	 */
+	public Cell[] pathTo(Cell target) {
+		Cell path[] = new Cell[targetDistance + 1];
+		Cell cell = target;
+		path[targetDistance] = cell;
+		for (int level = targetDistance; level > 0; level--) {
+			int wanted = (level - 1) % 3;
+			Cell previous = null;
+			for (int k = 0; k < Maze.NUM_DIR && previous == null; k++)
+				if (isOpen(cell, k) && isOnLevel(cell.neigh[k], wanted))
+					previous = cell.neigh[k];
+			if (previous == null && cell.tunnelTo != null && isOnLevel(cell.tunnelTo, wanted))
+				previous = cell.tunnelTo;
+			cell = previous;
+			path[level - 1] = cell;
+		}
+		return path;
+	} // end of pathTo()
+
+
+	private boolean isOnLevel(Cell cell, int mod3) {
+		int i = index(cell.r, cell.c);
+		long bit = 1L << cell.c;
+		if ((reached[i] & bit) == 0)
+			return false;
+		int level = ((levelBit0[i] & bit) != 0 ? 1 : 0) | ((levelBit1[i] & bit) != 0 ? 2 : 0);
+		return level == mod3;
+	} // end of isOnLevel()
+
+} // end of class BitFlood
@@ -0,0 +1,58 @@
+package maze;
+
+/**
+ * Read-only access to the cells of a maze by integer id, in the numbering of
+ * CellGrid: ids run row by row from 0 to numCells() - 1.
+ *
+ * CellGrid implements it over the Cell objects of a Maze; implementations
+ * backed by a file or off-heap memory let the same solvers run on mazes that
+ * are never turned into Cell objects.
+ */
+public interface CellAccess {
+
+	/**
+	 * @return Type of the maze, one of Maze.NORMAL, Maze.TUNNEL or Maze.HEX.
+	 */
+	public abstract int type();
+
+	/**
+	 * @return Number of cells in the maze.
+	 */
+	public abstract int numCells();
+
+	/**
+	 * @return Id of the entrance cell.
+	 */
+	public abstract int entrance();
+
+	/**
+	 * @return Id of the exit cell.
+	 */
+	public abstract int exit();
+
+	/**
+	 * Move from a cell along a direction.
+	 * @param id Cell id.
+	 * @param dir Direction to move along, one of the directions valid for the type.
+	 * @return Id of the neighbour in direction dir, or -1 if there is a wall or no neighbour.
+	 */
+	public abstract int move(int id, int dir);
+
+	/**
+	 * @param id Cell id.
+	 * @return Id of the other end of the tunnel at this cell, or -1 if there is none.
+	 */
+	public abstract int tunnel(int id);
+
+	/**
+	 * Directions valid for a type of maze, in counterclockwise order.
+	 * @param type Type of the maze.
+	 * @return A new array holding the directions.
+	 */
+	public static int[] directions(int type) {
+		if (type == Maze.HEX)
+			return new int[] { Maze.EAST, Maze.NORTHEAST, Maze.NORTHWEST, Maze.WEST, Maze.SOUTHWEST, Maze.SOUTHEAST };
+		return new int[] { Maze.EAST, Maze.NORTH, Maze.WEST, Maze.SOUTH };
+	} // end of directions()
+
+} // end of interface CellAccess
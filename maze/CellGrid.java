@@ -0,0 +1,188 @@
+package maze;
+
+/**
+ * Dense integer view of the cells of a maze.
+ *
+ * Every cell is given an id in [0, numCells), row by row, so that solvers
+ * can keep their per-cell state in flat primitive arrays instead of
+ * boolean[sizeR][sizeC] matrices and Cell collections.
+ * For hexagon mazes the id uses the column relative to the start of the row,
+ * i.e. the map column minus (r + 1) / 2.
+ * Walls and tunnels are read through the underlying Cell objects on every call,
+ * so the view stays valid when walls are changed after it is built.
+ */
+public class CellGrid implements CellAccess {
+
+	/**
+	 * The maze being viewed.
+	 */
+	public final Maze maze;
+
+	/**
+	 * Cached maze properties.
+	 */
+	public final int type;
+	public final int sizeR;
+	public final int sizeC;
+	public final int numCells;
+
+	/**
+	 * Directions that are valid for this type of maze.
+	 */
+	public final int dirs[];
+
+	// map of the maze when the view was built: initMaze() replaces it
+	private final Cell map[][];
+
+	/**
+	 * Build the view of a maze whose map has already been initialised.
+	 * @param maze The maze to view.
+	 */
+	public CellGrid(Maze maze) {
+		this.maze = maze;
+		type = maze.type;
+		sizeR = maze.sizeR;
+		sizeC = maze.sizeC;
+		numCells = sizeR * sizeC;
+		dirs = CellAccess.directions(type);
+		map = maze.map;
+	} // end of CellGrid()
+
+
+	/**
+	 * Whether this is a view of a maze as the maze is now. initMaze() gives a
+	 * maze a new map, and maybe a new size, type and tunnels, so anything
+	 * computed from a view built before must be computed again.
+	 * @param maze A maze.
+	 * @return True if the view was built on this maze, with its current map.
+	 */
+	public boolean isViewOf(Maze maze) {
+		return this.maze == maze && maze.map == map && maze.type == type
+				&& maze.sizeR == sizeR && maze.sizeC == sizeC;
+	} // end of isViewOf()
+
+
+	@Override
+	public int type() {
+		return type;
+	} // end of type()
+
+
+	@Override
+	public int numCells() {
+		return numCells;
+	} // end of numCells()
+
+
+	@Override
+	public int entrance() {
+		return id(maze.entrance);
+	} // end of entrance()
+
+
+	@Override
+	public int exit() {
+		return id(maze.exit);
+	} // end of exit()
+
+
+	/**
+	 * Offset between the map column and the id column of a row.
+	 * @param r Row coordinate.
+	 * @return (r + 1) / 2 for hexagon mazes, otherwise 0.
+	 */
+	public int shift(int r) {
+		return type == Maze.HEX ? (r + 1) / 2 : 0;
+	} // end of shift()
+
+
+	/**
+	 * @param r Row coordinate.
+	 * @param c Column coordinate in maze.map.
+	 * @return Id of the cell at (r, c).
+	 */
+	public int id(int r, int c) {
+		return r * sizeC + c - shift(r);
+	} // end of id()
+
+
+	/**
+	 * @param cell A cell of the maze.
+	 * @return Id of the cell.
+	 */
+	public int id(Cell cell) {
+		return id(cell.r, cell.c);
+	} // end of id()
+
+
+	/**
+	 * @param id Cell id.
+	 * @return Row coordinate of the cell.
+	 */
+	public int row(int id) {
+		return id / sizeC;
+	} // end of row()
+
+
+	/**
+	 * @param id Cell id.
+	 * @return Column coordinate of the cell in maze.map.
+	 */
+	public int col(int id) {
+		int r = id / sizeC;
+		return id - r * sizeC + shift(r);
+	} // end of col()
+
+
+	/**
+	 * @param id Cell id.
+	 * @return The Cell object with that id.
+	 */
+	public Cell cell(int id) {
+		int r = id / sizeC;
+		return maze.map[r][id - r * sizeC + shift(r)];
+	} // end of cell()
+
+
+	@Override
+	public int move(int id, int dir) {
+		Cell cell = cell(id);
+		Cell next = cell.neigh[dir];
+		if (next == null || cell.wall[dir].present)
+			return -1;
+		return id(next);
+	} // end of move()
+
+
+	@Override
+	public int tunnel(int id) {
+		Cell next = cell(id).tunnelTo;
+		return next == null ? -1 : id(next);
+	} // end of tunnel()
+
+
+	/**
+	 * @param id Cell id.
+	 * @return Cost of moving into the cell, from maze.cellCost or 1 if there is none.
+	 */
+	public int cost(int id) {
+		if (maze.cellCost == null)
+			return 1;
+		int r = id / sizeC;
+		return maze.cellCost[r][id - r * sizeC + shift(r)];
+	} // end of cost()
+
+
+	/**
+	 * @param id Cell id.
+	 * @return Cost of going through the tunnel of the cell, from maze.tunnelCost
+	 * or 1 if there is none.
+	 */
+	public int tunnelCost(int id) {
+		if (maze.tunnelCost == null)
+			return 1;
+		int r = id / sizeC;
+		return maze.tunnelCost[r][id - r * sizeC + shift(r)];
+	} // end of tunnelCost()
+
+} // end of class CellGrid
@@ -2,8 +2,6 @@ package maze;
 
 import java.util.*;
 
-import maze.StdDraw;
-
 /**
  * Class of hexagon maze.
  * 
@@ -75,45 +73,19 @@ public class HexMaze extends NormalMaze {
 	
 	
 	@Override
-	public boolean isPerfect() {
-		boolean visited[][] = new boolean[sizeR][sizeC];
-		Queue<Cell> queue = new LinkedList<Cell>();
-		
-		queue.add(entrance);
-		
-		while (!queue.isEmpty()) {
-			Cell currCell = queue.poll();
-			visited[currCell.r][currCell.c - (currCell.r + 1) / 2] = true;
-			int visitedNeigh = 0;
-			for (int i = 0; i < NUM_DIR; i++) {
-				Cell nextCell = currCell.neigh[i];
-				if (!isIn(nextCell) || currCell.wall[i].present)
-					continue;
-				if (visited[nextCell.r][nextCell.c - (nextCell.r + 1) / 2])
-					visitedNeigh += 1; 
-				else
-					queue.add(nextCell);
-			}
-			
-			if (visitedNeigh > 1)
-				return false;
-		}
-		
-		for (int i = 0; i < sizeR; i++)
-			for (int j = 0; j < sizeC; j++)
-				if (!visited[i][j])
-					return false;
-		
-		return true;
-	} // end of isPerfect()
-	
-	
+	double centerX(Cell cell) {
+		return cell.r % 2 * 0.5 + cell.c - (cell.r + 1) / 2 + 0.5;
+	} // end of centerX()
+
+
 	@Override
-	public void draw() {
-		// draw nothing if visualization is switched off
-		if (!isVisu)
-			return;
-		
+	double maxX() {
+		return sizeC + 1.5;
+	} // end of maxX()
+
+
+	@Override
+	void prepareWalls() {
 		for (int i = 0; i < sizeR; i++)
 			for (int j = (i + 1) / 2; j < sizeC + (i + 1) / 2; j++)
 				for (int k = 0; k < NUM_DIR; k++) {
@@ -136,107 +108,45 @@ public class HexMaze extends NormalMaze {
 				break;
 			}
 		}
-		
-		StdDraw.setCanvasSize(900, 650);
-		StdDraw.setXscale(-1, sizeC + 1.5);
-		StdDraw.setYscale(-1, sizeR+1);
-		
-
-		// draw entrance
-		StdDraw.setPenColor(StdDraw.BLUE);
-		if (entrance != null) {
-			StdDraw.filledCircle(entrance.r % 2 * 0.5 + entrance.c - (entrance.r + 1) / 2 + 0.5, entrance.r + 0.5, 0.375);
-		}
-
-		// draw exit
-		StdDraw.setPenColor(StdDraw.RED);
-		if (exit != null) {
-			StdDraw.filledCircle(exit.r % 2 * 0.5 + exit.c - (exit.r + 1) / 2 + 0.5, exit.r + 0.5, 0.375);
-		}        
-
-
-		// draw walls
+	} // end of prepareWalls()
+
+
+	/**
+	 * Add the walls not drawn yet around the cells of some rows to a batch.
+	 * No two walls of a honeycomb are collinear, so instead of straight runs
+	 * the slanted walls are followed along the zigzag below and above each
+	 * row, and every run of them becomes one polyline; the vertical walls are
+	 * added one by one.
+	 * @param batch Batch to add the walls to.
+	 * @param fromRow First row of cells.
+	 * @param toRow One past the last row of cells.
+	 */
+	@Override
+	void addWalls(SegmentBatch batch, int fromRow, int toRow) {
 		double halfEdge = 1.0 / 3; // Math.sqrt(3) / 6; 
-		StdDraw.setPenColor(StdDraw.BLACK);
-		for (int r = 0; r < sizeR; r++) {
+		for (int r = fromRow; r < toRow; r++) {
+			double shift = r % 2 * 0.5;
+			double mid = r + 0.5;
 			for (int c = 0; c < sizeC; c++) {
-				double shift = r % 2 * 0.5;
-				int cc = c + (r + 1) / 2;
-				if (map[r][cc].wall[EAST].present && !map[r][cc].wall[EAST].drawn) { StdDraw.line(c+1+shift, r+0.5-halfEdge, c+1+shift, r+0.5+halfEdge); map[r][cc].wall[EAST].drawn = true; }
-				if (map[r][cc].wall[NORTHEAST].present && !map[r][cc].wall[NORTHEAST].drawn) { StdDraw.line(c+0.5+shift, r+0.5+2*halfEdge, c+1+shift, r+0.5+halfEdge); map[r][cc].wall[NORTHEAST].drawn = true; }
-				if (map[r][cc].wall[NORTHWEST].present && !map[r][cc].wall[NORTHWEST].drawn) { StdDraw.line(c+0.5+shift, r+0.5+2*halfEdge, c+shift, r+0.5+halfEdge); map[r][cc].wall[NORTHWEST].drawn = true; }
-				if (map[r][cc].wall[WEST].present && !map[r][cc].wall[WEST].drawn) { StdDraw.line(c+shift, r+0.5-halfEdge, c+shift, r+0.5+halfEdge); map[r][cc].wall[WEST].drawn = true; }
-				if (map[r][cc].wall[SOUTHWEST].present && !map[r][cc].wall[SOUTHWEST].drawn) { StdDraw.line(c+shift, r+0.5-halfEdge, c+0.5+shift, r+0.5-2*halfEdge); map[r][cc].wall[SOUTHWEST].drawn = true; }
-				if (map[r][cc].wall[SOUTHEAST].present && !map[r][cc].wall[SOUTHEAST].drawn) { StdDraw.line(c+1+shift, r+0.5-halfEdge, c+0.5+shift, r+0.5-2*halfEdge); map[r][cc].wall[SOUTHEAST].drawn = true; }
+				Cell cell = map[r][c + (r + 1) / 2];
+				addWall(batch, cell.wall[SOUTHWEST], c+shift, mid-halfEdge, c+0.5+shift, mid-2*halfEdge);
+				addWall(batch, cell.wall[SOUTHEAST], c+0.5+shift, mid-2*halfEdge, c+1+shift, mid-halfEdge);
 			}
+			batch.breakRun();
+			for (int c = 0; c < sizeC; c++) {
+				Cell cell = map[r][c + (r + 1) / 2];
+				addWall(batch, cell.wall[NORTHWEST], c+shift, mid+halfEdge, c+0.5+shift, mid+2*halfEdge);
+				addWall(batch, cell.wall[NORTHEAST], c+0.5+shift, mid+2*halfEdge, c+1+shift, mid+halfEdge);
+			}
+			batch.breakRun();
+			for (int c = 0; c < sizeC; c++) {
+				Cell cell = map[r][c + (r + 1) / 2];
+				addWall(batch, cell.wall[WEST], c+shift, mid-halfEdge, c+shift, mid+halfEdge);
+				addWall(batch, cell.wall[EAST], c+1+shift, mid-halfEdge, c+1+shift, mid+halfEdge);
+			}
+			batch.breakRun();
 		}
-	} // end of draw()
-	
-	
-	@Override
-	public void drawFtPrt(Cell cell) {
-                // record every cell drawn
-                isRecorded[cell.r][cell.c] = true;
-
-		// draw nothing if visualization is switched off
-		if (!isVisu)
-			return;
-		
-		StdDraw.setPenColor(StdDraw.GRAY);
-		StdDraw.filledCircle(cell.r % 2 * 0.5 + cell.c - (cell.r + 1) / 2 + 0.5, cell.r + 0.5, 0.25);
-	} // end of drawFtPrt()
-	
-
-        @Override
-        public boolean validate() {
-                boolean isValid = true;
-                int pathLength = 0;
-                int count = 0;
-
-                int stepCount[][] = new int[sizeR][sizeC + (sizeR + 1) / 2];
-                Queue<Cell> queue = new LinkedList<Cell>();
-
-                queue.add(entrance);
-                stepCount[entrance.r][entrance.c] = 1;
-
-                while (!queue.isEmpty()) {
-                        Cell cell = queue.poll();
-                        count++;
-                        int step = stepCount[cell.r][cell.c];
-
-                        for (int i = 0; i < Maze.NUM_DIR; i++) {
-                                Cell next = cell.neigh[i];
-                                if (next != null && !cell.wall[i].present && isRecorded[next.r][next.c] && stepCount[next.r][next.c] == 0) {
-                                        stepCount[next.r][next.c] = step + 1;
-                                        queue.add(next);
-                                }
-                        }
-                }
-
-                if (stepCount[exit.r][exit.c] == 0) {
-                        isValid = false;
-                        System.out.println("[Validation] Exit is not reached.");
-                }
-                else {
-                        pathLength = stepCount[exit.r][exit.c];
-                }
-
-                for (int i = 0; i < sizeR; i++){
-                        for (int j = 0; j < sizeC + (sizeR + 1) / 2; j++) {
-                                if (isValid && isRecorded[i][j] && stepCount[i][j] == 0) {
-                                        isValid = false;
-                                        System.out.println("[Validation] Visited cell not reachable.");
-                                }
-                        }
-                }
-
-                if (isValid) {
-                        System.out.println("[Validation] Number of cells visited = " + count);
-                        System.out.println("[Validation] Path length of the solution = " + pathLength);
-                }
-
-                return isValid;
-        } // end of validate()
+	} // end of addWalls()
 
 
 } // end of class HexMaze
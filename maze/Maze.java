@@ -51,6 +51,20 @@ public abstract class Maze {
 	public Cell entrance;
 	public Cell exit;
 	public boolean isVisu = true;
+
+	/**
+	 * Backend that draw() and drawFtPrt(Cell) draw through when isVisu is true.
+	 */
+	public Renderer renderer = new StdDrawRenderer();
+
+	/**
+	 * Optional cost layer used by weighted solvers, indexed like map.
+	 * cellCost[r][c] is the cost of moving into cell (r, c), and tunnelCost[r][c]
+	 * the cost of going through the tunnel that starts at cell (r, c).
+	 * Costs must not be negative; a null layer means every move costs 1.
+	 */
+	public int cellCost[][] = null;
+	public int tunnelCost[][] = null;
 	
 	/**
 	 * To test whether the input entrance and exit locations are valid.
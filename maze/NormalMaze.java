@@ -1,9 +1,8 @@
 package maze;
 
+import java.awt.Color;
 import java.util.*;
 
-import maze.StdDraw;
-
 /**
  * Class of a normal rectangular maze.
  * 
@@ -101,44 +100,78 @@ public class NormalMaze extends Maze {
 	
 	@Override
 	public boolean isPerfect() {
-		boolean visited[][] = new boolean[sizeR][sizeC];
-		Queue<Cell> queue = new LinkedList<Cell>();
-		
-		queue.add(entrance);
-		
-		while (!queue.isEmpty()) {
-			Cell currCell = queue.poll();
-			visited[currCell.r][currCell.c] = true;
-			int visitedNeigh = 0;
-			for (int i = 0; i < NUM_DIR; i++) {
-				Cell nextCell = currCell.neigh[i];
-				if (!isIn(nextCell) || currCell.wall[i].present)
-					continue;
-				if (visited[nextCell.r][nextCell.c])
-					visitedNeigh += 1; 
-				else
-					queue.add(nextCell);
-			}
-			
-			if (visitedNeigh > 1)
-				return false;
-		}
-		
-		for (int i = 0; i < sizeR; i++)
-			for (int j = 0; j < sizeC; j++)
-				if (!visited[i][j])
-					return false;
-		
-		return true;
+		// a perfect maze is a tree: every cell can be reached, and there is
+		// exactly one passage fewer than cells
+		BitFlood flood = new BitFlood(this);
+		return flood.flood(entrance, null) == flood.numCells()
+			&& flood.numPassages() == flood.numCells() - 1;
 	} // end of isPerfect()
 
 	
 	@Override
 	public void draw() {
-		// draw nothing if visualization is switched off
-		if (!isVisu)
+		// draw nothing if visualization is switched off, or if nothing drawn is seen
+		if (!isVisu || !renderer.isVisible())
 			return;
 		
+		prepareWalls();
+		
+		// draw everything offscreen, and put it on screen once at the end
+		renderer.begin(-1, maxX(), -1, sizeR+1);
+
+		// draw entrance
+		renderer.setPenColor(Color.BLUE);
+		if (entrance != null) {
+			renderer.filledCircle(centerX(entrance), entrance.r + 0.5, 0.375);
+		}
+
+		// draw exit
+		renderer.setPenColor(Color.RED);
+		if (exit != null) {
+			renderer.filledCircle(centerX(exit), exit.r + 0.5, 0.375);
+		}        
+
+
+		// draw walls, merged into one batch of runs
+		renderer.setPenColor(Color.BLACK);
+		SegmentBatch walls = new SegmentBatch();
+		addWalls(walls);
+		walls.draw(renderer);
+		drawFeatures();
+		renderer.show();
+	} // end of draw()
+
+
+	/**
+	 * Draw what this kind of maze shows over its walls, before the picture is
+	 * shown. A NormalMaze has nothing more to draw.
+	 */
+	void drawFeatures() {
+	} // end of drawFeatures()
+
+
+	/**
+	 * @param cell A cell of the maze.
+	 * @return x coordinate of the centre of the cell when drawn.
+	 */
+	double centerX(Cell cell) {
+		return cell.c + 0.5;
+	} // end of centerX()
+
+
+	/**
+	 * @return Right edge of the window the maze is drawn in.
+	 */
+	double maxX() {
+		return sizeC + 1;
+	} // end of maxX()
+
+
+	/**
+	 * Mark every wall as not drawn yet, except one outer wall of the entrance
+	 * and one of the exit, which are left open.
+	 */
+	void prepareWalls() {
 		for (int i = 0; i < sizeR; i++)
 			for (int j = 0; j < sizeC; j++)
 				for (int k = 0; k < NUM_DIR; k++) {
@@ -163,35 +196,76 @@ public class NormalMaze extends Maze {
 				break;
 			}
 		}
-		
-		StdDraw.setCanvasSize(900, 650);
-		StdDraw.setXscale(-1, sizeC+1);
-		StdDraw.setYscale(-1, sizeR+1);
+	} // end of prepareWalls()
 
-		// draw entrance
-		StdDraw.setPenColor(StdDraw.BLUE);
-		if (entrance != null) {
-			StdDraw.filledCircle(entrance.c + 0.5, entrance.r + 0.5, 0.375);
-		}
 
-		// draw exit
-		StdDraw.setPenColor(StdDraw.RED);
-		if (exit != null) {
-			StdDraw.filledCircle(exit.c + 0.5, exit.r + 0.5, 0.375);
-		}        
+	/**
+	 * Add the walls not drawn yet to a batch, following each grid line so
+	 * that a run of walls along it becomes a single segment.
+	 * @param batch Batch to add the walls to.
+	 */
+	void addWalls(SegmentBatch batch) {
+		addWalls(batch, 0, sizeR);
+	} // end of addWalls()
 
 
-		// draw walls
-		StdDraw.setPenColor(StdDraw.BLACK);
-		for (int r = 0; r < sizeR; r++) {
+	/**
+	 * Add the walls not drawn yet around the cells of some rows to a batch,
+	 * following each grid line so that a run of walls along it becomes a
+	 * single segment.
+	 * @param batch Batch to add the walls to.
+	 * @param fromRow First row of cells.
+	 * @param toRow One past the last row of cells.
+	 */
+	void addWalls(SegmentBatch batch, int fromRow, int toRow) {
+		// horizontal walls, along the lines y = r
+		for (int r = fromRow; r <= toRow; r++) {
 			for (int c = 0; c < sizeC; c++) {
-				if (map[r][c].wall[EAST].present && !map[r][c].wall[EAST].drawn) { StdDraw.line(c+1, r, c+1, r+1); map[r][c].wall[EAST].drawn = true; }
-				if (map[r][c].wall[NORTH].present && !map[r][c].wall[NORTH].drawn) { StdDraw.line(c, r+1, c+1, r+1); map[r][c].wall[NORTH].drawn = true; }
-				if (map[r][c].wall[WEST].present && !map[r][c].wall[WEST].drawn) { StdDraw.line(c, r, c, r+1); map[r][c].wall[WEST].drawn = true; }
-				if (map[r][c].wall[SOUTH].present && !map[r][c].wall[SOUTH].drawn) { StdDraw.line(c, r, c+1, r); map[r][c].wall[SOUTH].drawn = true; }
+				Wall wall = r < sizeR ? map[r][c].wall[SOUTH] : map[r - 1][c].wall[NORTH];
+				addWall(batch, wall, c, r, c + 1, r);
 			}
+			batch.breakRun();
 		}
-	} // end of draw()
+
+		// vertical walls, along the lines x = c
+		for (int c = 0; c <= sizeC; c++) {
+			for (int r = fromRow; r < toRow; r++) {
+				Wall wall = c < sizeC ? map[r][c].wall[WEST] : map[r][c - 1].wall[EAST];
+				addWall(batch, wall, c, r, c, r + 1);
+			}
+			batch.breakRun();
+		}
+	} // end of addWalls()
+
+
+	/**
+	 * Add a wall to a batch and mark it as drawn if the batch marks walls, or
+	 * end the current run if the wall is absent or already drawn.
+	 */
+	static void addWall(SegmentBatch batch, Wall wall, double x0, double y0, double x1, double y1) {
+		if (wall != null && wall.present && !wall.drawn) {
+			if (batch.marksWalls)
+				wall.drawn = true;
+			batch.add(x0, y0, x1, y1);
+		}
+		else
+			batch.breakRun();
+	} // end of addWall()
+
+
+	/**
+	 * Append a segment to a batch for Renderer.lines().
+	 * @param segments Coordinates of the batch, four per segment.
+	 * @param n Number of segments in the batch.
+	 * @return Number of segments in the batch with the new one.
+	 */
+	protected static int segment(double segments[], int n, double x0, double y0, double x1, double y1) {
+		segments[4 * n] = x0;
+		segments[4 * n + 1] = y0;
+		segments[4 * n + 2] = x1;
+		segments[4 * n + 3] = y1;
+		return n + 1;
+	} // end of segment()
 
 	
 	@Override
@@ -199,12 +273,12 @@ public class NormalMaze extends Maze {
  		// record every cell drawn
  		isRecorded[cell.r][cell.c] = true;
 
-		// draw nothing if visualization is switched off
-		if (!isVisu)
+		// draw nothing if visualization is switched off, or if nothing drawn is seen
+		if (!isVisu || !renderer.isVisible())
 			return;
 		
-		StdDraw.setPenColor(StdDraw.GRAY);
-		StdDraw.filledCircle(cell.c + 0.5, cell.r + 0.5, 0.25);
+		renderer.setPenColor(Color.GRAY);
+		renderer.filledCircle(centerX(cell), cell.r + 0.5, 0.25);
 	} // end of drawFtPrt()
 	
 
@@ -212,39 +286,22 @@ public class NormalMaze extends Maze {
         public boolean validate() {
                 boolean isValid = true;
                 int pathLength = 0;
-                int count = 0;
-
-                int stepCount[][] = new int[sizeR][sizeC];
-                Queue<Cell> queue = new LinkedList<Cell>();
-
-                queue.add(entrance);
-                stepCount[entrance.r][entrance.c] = 1;
 
-                while (!queue.isEmpty()) {
-                        Cell cell = queue.poll();
-                        count++;
-                        int step = stepCount[cell.r][cell.c];
-
-                        for (int i = 0; i < Maze.NUM_DIR; i++) {
-                                Cell next = cell.neigh[i];
-                                if (next != null && !cell.wall[i].present && isRecorded[next.r][next.c] && stepCount[next.r][next.c] == 0) {
-                                        stepCount[next.r][next.c] = step + 1;
-                                        queue.add(next);
-                                }
-                        }
-                }
+                // breadth-first search from the entrance over the recorded cells
+                BitFlood flood = new BitFlood(this);
+                int count = flood.search(entrance, exit, isRecorded, false);
 
-                if (stepCount[exit.r][exit.c] == 0) {
+                if (flood.targetDistance() < 0) {
                         isValid = false;
                         System.out.println("[Validation] Exit is not reached.");
                 }
                 else {
-                        pathLength = stepCount[exit.r][exit.c];
+                        pathLength = flood.targetDistance() + 1;
                 }
 
-                for (int i = 0; i < sizeR; i++){
-                        for (int j = 0; j < sizeC; j++) {
-                                if (isValid && isRecorded[i][j] && stepCount[i][j] == 0) {
+                for (int i = 0; i < isRecorded.length; i++){
+                        for (int j = 0; j < isRecorded[i].length; j++) {
+                                if (isValid && isRecorded[i][j] && !flood.isReached(i, j)) {
                                         isValid = false;
                                         System.out.println("[Validation] Visited cell not reachable.");
                                 }
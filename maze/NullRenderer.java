@@ -0,0 +1,51 @@
+package maze;
+
+import java.awt.Color;
+
+/**
+ * Renderer drawing nothing. Since it is not visible, mazes skip drawing
+ * altogether and only record their footprints.
+ */
+public class NullRenderer implements Renderer {
+
+	@Override
+	public boolean isVisible() {
+		return false;
+	} // end of isVisible()
+
+
+	@Override
+	public void begin(double minX, double maxX, double minY, double maxY) {
+	} // end of begin()
+
+
+	@Override
+	public void setPenColor(Color color) {
+	} // end of setPenColor()
+
+
+	@Override
+	public void setPenRadius(double radius) {
+	} // end of setPenRadius()
+
+
+	@Override
+	public void filledCircle(double x, double y, double radius) {
+	} // end of filledCircle()
+
+
+	@Override
+	public void lines(double segments[], int n) {
+	} // end of lines()
+
+
+	@Override
+	public void polylines(double points[], int starts[], int n) {
+	} // end of polylines()
+
+
+	@Override
+	public void show() {
+	} // end of show()
+
+} // end of class NullRenderer
@@ -0,0 +1,156 @@
+package maze;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes an image held as an int[] of 0xRRGGBB pixels, row by row from the
+ * top, as an 8-bit RGB PNG file.
+ *
+ * Rows are fed to the compressor one at a time and compressed data is written
+ * out in IDAT chunks of at most CHUNK_SIZE bytes, so memory use does not grow
+ * with the image beyond the pixels themselves. For images too large to hold
+ * as pixels, see BandedPngWriter.
+ */
+public class PngWriter {
+
+	private static final byte SIGNATURE[] = { (byte) 137, 80, 78, 71, 13, 10, 26, 10 };
+
+	// largest number of bytes of compressed data per IDAT chunk
+	static final int CHUNK_SIZE = 1 << 16;
+
+	/**
+	 * Write an image as a PNG file.
+	 * @param out Stream to write to; it is not closed.
+	 * @param pixels Pixels as 0xRRGGBB, width per row, top row first.
+	 * @param width Width of the image.
+	 * @param height Height of the image.
+	 * @throws IOException If writing fails.
+	 */
+	public static void write(OutputStream out, int pixels[], int width, int height) throws IOException {
+		if (width < 1 || height < 1 || pixels.length < (long) width * height)
+			throw new IllegalArgumentException("Image must be at least 1x1 and fit in the pixel array.");
+
+		writeHeader(out, width, height);
+
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		IdatWriter idat = new IdatWriter(out);
+		byte row[] = new byte[1 + 3 * width];
+		byte buffer[] = new byte[CHUNK_SIZE];
+		for (int y = 0; y < height; y++) {
+			packRow(pixels, y * width, width, row);
+			deflater.setInput(row);
+			while (!deflater.needsInput())
+				idat.write(buffer, 0, deflater.deflate(buffer));
+		}
+		deflater.finish();
+		while (!deflater.finished())
+			idat.write(buffer, 0, deflater.deflate(buffer));
+		deflater.end();
+		idat.flush();
+
+		writeChunk(out, "IEND", buffer, 0, 0);
+	} // end of write()
+
+
+	/**
+	 * Write the PNG signature and the IHDR chunk of an 8-bit RGB image.
+	 */
+	static void writeHeader(OutputStream out, int width, int height) throws IOException {
+		out.write(SIGNATURE);
+		byte header[] = new byte[13];
+		putInt(header, 0, width);
+		putInt(header, 4, height);
+		header[8] = 8; // bits per sample
+		header[9] = 2; // truecolour
+		// compression, filter and interlace methods are all 0
+		writeChunk(out, "IHDR", header, 0, header.length);
+	} // end of writeHeader()
+
+
+	/**
+	 * Pack a row of pixels into PNG scanline bytes: filter type 0 (none),
+	 * then red, green and blue of every pixel.
+	 */
+	static void packRow(int pixels[], int from, int width, byte row[]) {
+		row[0] = 0;
+		for (int x = 0, i = 1; x < width; x++) {
+			int p = pixels[from + x];
+			row[i++] = (byte) (p >>> 16);
+			row[i++] = (byte) (p >>> 8);
+			row[i++] = (byte) p;
+		}
+	} // end of packRow()
+
+
+	/**
+	 * Write a chunk: length, type, data and the CRC of type and data.
+	 */
+	static void writeChunk(OutputStream out, String type, byte data[], int offset, int length) throws IOException {
+		byte head[] = new byte[8];
+		putInt(head, 0, length);
+		for (int i = 0; i < 4; i++)
+			head[4 + i] = (byte) type.charAt(i);
+		CRC32 crc = new CRC32();
+		crc.update(head, 4, 4);
+		crc.update(data, offset, length);
+		byte tail[] = new byte[4];
+		putInt(tail, 0, (int) crc.getValue());
+
+		out.write(head);
+		out.write(data, offset, length);
+		out.write(tail);
+	} // end of writeChunk()
+
+
+	/**
+	 * Cuts a stream of compressed image data into IDAT chunks of CHUNK_SIZE
+	 * bytes, and a last shorter one.
+	 */
+	static class IdatWriter {
+		private final OutputStream out;
+		private final byte chunk[] = new byte[CHUNK_SIZE];
+		private int filled = 0;
+
+		IdatWriter(OutputStream out) {
+			this.out = out;
+		} // end of IdatWriter()
+
+
+		void write(byte data[], int offset, int length) throws IOException {
+			while (length > 0) {
+				int n = Math.min(length, chunk.length - filled);
+				System.arraycopy(data, offset, chunk, filled, n);
+				filled += n;
+				offset += n;
+				length -= n;
+				if (filled == chunk.length) {
+					writeChunk(out, "IDAT", chunk, 0, filled);
+					filled = 0;
+				}
+			}
+		} // end of write()
+
+
+		/**
+		 * Write the data not written yet as a last chunk.
+		 */
+		void flush() throws IOException {
+			if (filled > 0)
+				writeChunk(out, "IDAT", chunk, 0, filled);
+			filled = 0;
+		} // end of flush()
+
+	} // end of class IdatWriter
+
+
+	static void putInt(byte b[], int at, int v) {
+		b[at] = (byte) (v >>> 24);
+		b[at + 1] = (byte) (v >>> 16);
+		b[at + 2] = (byte) (v >>> 8);
+		b[at + 3] = (byte) v;
+	} // end of putInt()
+
+} // end of class PngWriter
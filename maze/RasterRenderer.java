@@ -0,0 +1,397 @@
+package maze;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Draws a maze straight into an int[] of 0xRRGGBB pixels, for writing images
+ * of mazes without a screen.
+ *
+ * The picture is the one draw() shows: the walls, the entrance and the exit,
+ * the tunnels of a TUNNEL maze, and the footprints recorded by drawFtPrt().
+ * Cells are pixelsPerCell pixels wide with a one cell margin around the
+ * maze, as in the StdDraw window. Walls are plain pixel lines and discs are
+ * filled spans, so there is no antialiasing and no AWT drawing, and nothing
+ * here needs a display.
+ *
+ * The image can also be drawn as horizontal bands of pixel rows, several at
+ * the same time, after one call to prepare(); BandedPngWriter uses this for
+ * images too large to hold in memory.
+ *
+ * As a Renderer, it draws whatever a maze draws through it into the pixels
+ * instead, from begin() on. The pen radius is ignored: every line is drawn
+ * with the pen walls are drawn with.
+ */
+public class RasterRenderer implements Renderer {
+
+	private static final int WHITE = 0xFFFFFF;
+	private static final int BLACK = 0x000000;
+	private static final int BLUE = 0x0000FF;
+	private static final int RED = 0xFF0000;
+	private static final int GRAY = 0x808080;
+
+	private final int pixelsPerCell;
+	// width of walls in pixels
+	private final int thickness;
+	private int pixels[] = new int[0];
+	// left and top edges of the window shown, in cells
+	private double minX;
+	private double maxY;
+	private int width;
+	private int height;
+	// whole image, for drawing through the Renderer methods
+	private Band canvas;
+	private int penColor = BLACK;
+
+	// maze being drawn, and what prepare() worked out about it
+	private NormalMaze maze;
+	// colour of both ends of every tunnel
+	private Map<Cell, Integer> tunnelColors = new HashMap<Cell, Integer>();
+
+	/**
+	 * @param pixelsPerCell Width of a cell in pixels, at least 2.
+	 */
+	public RasterRenderer(int pixelsPerCell) {
+		if (pixelsPerCell < 2)
+			throw new IllegalArgumentException("A cell must be at least 2 pixels wide.");
+		this.pixelsPerCell = pixelsPerCell;
+		thickness = Math.max(1, pixelsPerCell / 10);
+	} // end of RasterRenderer()
+
+
+	/**
+	 * @return Width of the last image rendered or prepared.
+	 */
+	public int width() {
+		return width;
+	} // end of width()
+
+
+	/**
+	 * @return Height of the last image rendered or prepared.
+	 */
+	public int height() {
+		return height;
+	} // end of height()
+
+
+	/**
+	 * @return Pixels of the last image rendered, width per row, top row
+	 * first; the array may be longer than width * height.
+	 */
+	public int[] pixels() {
+		return pixels;
+	} // end of pixels()
+
+
+	/**
+	 * Render a maze, reusing the pixel array of the last image if it is
+	 * large enough.
+	 * @param maze The maze, one of NormalMaze, TunnelMaze or HexMaze.
+	 */
+	public void render(Maze maze) {
+		prepare(maze);
+		allocate();
+		renderBand(pixels, 0, height);
+		canvas = null;
+	} // end of render()
+
+
+	@Override
+	public boolean isVisible() {
+		return true;
+	} // end of isVisible()
+
+
+	@Override
+	public void begin(double minX, double maxX, double minY, double maxY) {
+		setWindow(minX, maxX, minY, maxY);
+		allocate();
+		canvas = new Band(pixels, 0, height);
+		Arrays.fill(pixels, 0, width * height, WHITE);
+		penColor = BLACK;
+	} // end of begin()
+
+
+	@Override
+	public void setPenColor(Color color) {
+		penColor = color.getRGB() & 0xFFFFFF;
+	} // end of setPenColor()
+
+
+	@Override
+	public void setPenRadius(double radius) {
+	} // end of setPenRadius()
+
+
+	@Override
+	public void filledCircle(double x, double y, double radius) {
+		canvas().disc(x, y, radius, penColor);
+	} // end of filledCircle()
+
+
+	@Override
+	public void lines(double segments[], int n) {
+		Band band = canvas();
+		for (int i = 0; i < 4 * n; i += 4)
+			band.line(segments[i], segments[i + 1], segments[i + 2], segments[i + 3], penColor);
+	} // end of lines()
+
+
+	@Override
+	public void polylines(double points[], int starts[], int n) {
+		Band band = canvas();
+		for (int i = 0; i < n; i++)
+			for (int j = starts[i] + 1; j < starts[i + 1]; j++)
+				band.line(points[2 * j - 2], points[2 * j - 1], points[2 * j], points[2 * j + 1], penColor);
+	} // end of polylines()
+
+
+	@Override
+	public void show() {
+	} // end of show()
+
+
+	/**
+	 * Write the last image rendered as a PNG file.
+	 * @param out Stream to write to; it is not closed.
+	 * @throws IOException If writing fails.
+	 */
+	public void writePng(OutputStream out) throws IOException {
+		PngWriter.write(out, pixels, width, height);
+	} // end of writePng()
+
+
+	/**
+	 * Get ready to draw a maze band by band: work out the size of the image,
+	 * open the walls at the entrance and the exit, and give every tunnel its
+	 * colour. The maze must not change until its bands are drawn.
+	 * @param maze The maze, one of NormalMaze, TunnelMaze or HexMaze.
+	 */
+	void prepare(Maze maze) {
+		if (!(maze instanceof NormalMaze))
+			throw new IllegalArgumentException("Unknown kind of maze.");
+		this.maze = (NormalMaze) maze;
+		setWindow(-1, this.maze.maxX(), -1, maze.sizeR + 1);
+		this.maze.prepareWalls();
+
+		// tunnels take the colours of TunnelMaze in the order it draws them
+		tunnelColors.clear();
+		if (maze.type == Maze.TUNNEL) {
+			int numTunnelDrawn = 0;
+			for (int r = 0; r < maze.sizeR; r++) {
+				for (int c = 0; c < maze.sizeC; c++) {
+					Cell cell = maze.map[r][c];
+					if (cell.tunnelTo == null || tunnelColors.containsKey(cell))
+						continue;
+					Color color = TunnelMaze.TUNNEL_COLORS[numTunnelDrawn % TunnelMaze.TUNNEL_COLORS.length];
+					tunnelColors.put(cell, color.getRGB() & 0xFFFFFF);
+					tunnelColors.put(cell.tunnelTo, color.getRGB() & 0xFFFFFF);
+					numTunnelDrawn++;
+				}
+			}
+		}
+	} // end of prepare()
+
+
+	/**
+	 * Set the window of coordinates shown, and the size of the image.
+	 */
+	private void setWindow(double minX, double maxX, double minY, double maxY) {
+		long w = Math.round((maxX - minX) * pixelsPerCell) + 1;
+		long h = Math.round((maxY - minY) * pixelsPerCell) + 1;
+		if (w < 1 || h < 1 || w > Integer.MAX_VALUE || h > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Image too large or empty.");
+		this.minX = minX;
+		this.maxY = maxY;
+		width = (int) w;
+		height = (int) h;
+	} // end of setWindow()
+
+
+	/**
+	 * Make sure the pixel array holds the whole image.
+	 */
+	private void allocate() {
+		if ((long) width * height > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Image too large for one pixel array.");
+		if (pixels.length < width * height)
+			pixels = new int[width * height];
+	} // end of allocate()
+
+
+	private Band canvas() {
+		if (canvas == null)
+			throw new IllegalStateException("Nothing can be drawn before begin().");
+		return canvas;
+	} // end of canvas()
+
+
+	/**
+	 * Draw the pixel rows top to top + rows - 1 of the image of the maze
+	 * last prepared. Bands may be drawn by several threads at once.
+	 * @param band Array of at least width * rows pixels to draw into.
+	 * @param top First pixel row of the band.
+	 * @param rows Number of pixel rows of the band.
+	 */
+	void renderBand(int band[], int top, int rows) {
+		new Band(band, top, rows).render();
+	} // end of renderBand()
+
+
+	/**
+	 * A band of pixel rows being drawn. Everything is drawn as on the whole
+	 * image and clipped to the band, so the bands of an image put together
+	 * are the same as the whole image drawn at once.
+	 */
+	private class Band {
+		private final int pixels[];
+		private final int top;
+		private final int bottom;
+
+		Band(int pixels[], int top, int rows) {
+			this.pixels = pixels;
+			this.top = top;
+			this.bottom = Math.min(height, top + rows);
+		} // end of Band()
+
+
+		void render() {
+			Arrays.fill(pixels, 0, (bottom - top) * width, WHITE);
+
+			// rows of cells with something to draw in the band
+			double margin = 1 + (double) thickness / pixelsPerCell;
+			int fromRow = Math.max(0, (int) Math.floor(maxY - (double) bottom / pixelsPerCell - margin));
+			int toRow = Math.min(maze.sizeR, (int) Math.ceil(maxY - (double) top / pixelsPerCell + margin));
+			if (fromRow >= toRow)
+				return;
+
+			if (maze.entrance != null)
+				disc(maze.centerX(maze.entrance), maze.entrance.r + 0.5, 0.375, BLUE);
+			if (maze.exit != null)
+				disc(maze.centerX(maze.exit), maze.exit.r + 0.5, 0.375, RED);
+
+			SegmentBatch walls = new SegmentBatch(false);
+			maze.addWalls(walls, fromRow, toRow);
+			for (int run = 0; run < walls.numRuns(); run++)
+				for (int i = walls.start(run) + 1; i < walls.end(run); i++)
+					line(walls.x(i - 1), walls.y(i - 1), walls.x(i), walls.y(i), BLACK);
+
+			// outline both ends of every tunnel with a square
+			if (!tunnelColors.isEmpty()) {
+				for (int r = fromRow; r < toRow; r++)
+					for (int c = 0; c < maze.sizeC; c++) {
+						Integer color = tunnelColors.get(maze.map[r][c]);
+						if (color != null)
+							square(c, r, color);
+					}
+			}
+
+			for (int r = fromRow; r < toRow; r++)
+				for (int c = 0; c < maze.map[r].length; c++)
+					if (maze.isRecorded[r][c] && maze.map[r][c] != null)
+						disc(maze.centerX(maze.map[r][c]), r + 0.5, 0.25, GRAY);
+		} // end of render()
+
+
+		void square(int c, int r, int color) {
+			line(c + 0.9, r + 0.1, c + 0.9, r + 0.9, color);
+			line(c + 0.1, r + 0.9, c + 0.9, r + 0.9, color);
+			line(c + 0.1, r + 0.1, c + 0.1, r + 0.9, color);
+			line(c + 0.1, r + 0.1, c + 0.9, r + 0.1, color);
+		} // end of square()
+
+
+		/**
+		 * Draw a line between two points given in cells, with Bresenham's
+		 * algorithm and a square pen of the wall thickness.
+		 */
+		void line(double x0, double y0, double x1, double y1, int color) {
+			int px = toPixelX(x0), py = toPixelY(y0);
+			int qx = toPixelX(x1), qy = toPixelY(y1);
+			// always go the same way along a line, so that a wall drawn from
+			// either end, or twice, covers the same pixels
+			if (py > qy || (py == qy && px > qx)) {
+				int t = px;
+				px = qx;
+				qx = t;
+				t = py;
+				py = qy;
+				qy = t;
+			}
+			int half = thickness / 2;
+			if (Math.max(py, qy) - half + thickness <= top || Math.min(py, qy) - half >= bottom)
+				return;
+			int dx = Math.abs(qx - px), sx = px < qx ? 1 : -1;
+			int dy = -Math.abs(qy - py), sy = py < qy ? 1 : -1;
+			int err = dx + dy;
+			while (true) {
+				plot(px, py, color);
+				if (px == qx && py == qy)
+					break;
+				int e2 = 2 * err;
+				if (e2 >= dy) {
+					err += dy;
+					px += sx;
+				}
+				if (e2 <= dx) {
+					err += dx;
+					py += sy;
+				}
+			}
+		} // end of line()
+
+
+		void plot(int px, int py, int color) {
+			int half = thickness / 2;
+			int x0 = Math.max(0, px - half), x1 = Math.min(width, px - half + thickness);
+			int y0 = Math.max(top, py - half), y1 = Math.min(bottom, py - half + thickness);
+			for (int y = y0; y < y1; y++)
+				Arrays.fill(pixels, (y - top) * width + x0, (y - top) * width + Math.max(x0, x1), color);
+		} // end of plot()
+
+
+		/**
+		 * Fill a disc whose centre and radius are given in cells.
+		 */
+		void disc(double x, double y, double radius, int color) {
+			double cx = (x - minX) * pixelsPerCell;
+			double cy = (maxY - y) * pixelsPerCell;
+			double rad = radius * pixelsPerCell;
+			int first = Math.max(top, (int) Math.ceil(cy - rad));
+			int last = Math.min(bottom - 1, (int) Math.floor(cy + rad));
+			for (int py = first; py <= last; py++) {
+				double half = Math.sqrt(Math.max(0, rad * rad - (py - cy) * (py - cy)));
+				int left = Math.max(0, (int) Math.ceil(cx - half));
+				int right = Math.min(width - 1, (int) Math.floor(cx + half));
+				if (left <= right)
+					Arrays.fill(pixels, (py - top) * width + left, (py - top) * width + right + 1, color);
+			}
+		} // end of disc()
+
+	} // end of class Band
+
+
+	private int toPixelX(double x) {
+		return toPixel((x - minX) * pixelsPerCell);
+	} // end of toPixelX()
+
+
+	private int toPixelY(double y) {
+		return toPixel((maxY - y) * pixelsPerCell);
+	} // end of toPixelY()
+
+
+	/**
+	 * Nearest pixel, with halves rounded up even when a corner computed from
+	 * two neighbouring cells comes out a rounding error either side of one.
+	 */
+	private static int toPixel(double v) {
+		return (int) Math.floor(v + 0.5 + 1e-9);
+	} // end of toPixel()
+
+} // end of class RasterRenderer
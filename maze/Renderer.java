@@ -0,0 +1,75 @@
+package maze;
+
+import java.awt.Color;
+
+/**
+ * Backend that mazes draw themselves through: the StdDraw window, an image in
+ * memory, an SVG document, or nothing at all.
+ *
+ * Coordinates are in cells, with y going up as in StdDraw. A picture starts
+ * with begin(), which sets the window of coordinates it shows, and what is
+ * drawn after that need not be visible before the next show().
+ */
+public interface Renderer {
+
+	/**
+	 * Radius of the pen until setPenRadius() is called, as in StdDraw.
+	 */
+	double DEFAULT_PEN_RADIUS = 0.002;
+
+	/**
+	 * @return False if nothing drawn is ever seen, so that callers may skip
+	 * working out what to draw. Otherwise true.
+	 */
+	boolean isVisible();
+
+	/**
+	 * Start a new, empty picture.
+	 * @param minX Left edge of the window.
+	 * @param maxX Right edge of the window.
+	 * @param minY Bottom edge of the window.
+	 * @param maxY Top edge of the window.
+	 */
+	void begin(double minX, double maxX, double minY, double maxY);
+
+	/**
+	 * @param color Colour of what is drawn next.
+	 */
+	void setPenColor(Color color);
+
+	/**
+	 * @param radius Radius of the pen drawing lines, as a fraction of the
+	 * width of a default StdDraw window.
+	 */
+	void setPenRadius(double radius);
+
+	/**
+	 * Draw a filled circle.
+	 * @param x x coordinate of the centre.
+	 * @param y y coordinate of the centre.
+	 * @param radius Radius of the circle.
+	 */
+	void filledCircle(double x, double y, double radius);
+
+	/**
+	 * Draw a batch of separate segments.
+	 * @param segments x0, y0, x1 and y1 of each segment, one after the other.
+	 * @param n Number of segments.
+	 */
+	void lines(double segments[], int n);
+
+	/**
+	 * Draw a batch of polylines.
+	 * @param points x and y of the points of all polylines, one after the other.
+	 * @param starts Index of the first point of each polyline, and one past
+	 * the last point in starts[n].
+	 * @param n Number of polylines.
+	 */
+	void polylines(double points[], int starts[], int n);
+
+	/**
+	 * Make everything drawn so far visible.
+	 */
+	void show();
+
+} // end of interface Renderer
@@ -0,0 +1,145 @@
+package maze;
+
+import java.util.Arrays;
+
+/**
+ * Walls collected for drawing, merged into as few polylines as possible.
+ *
+ * Walls are added in the order they follow each other along a grid line.
+ * A wall starting where the last one ended continues the same polyline, and
+ * if it also goes on in the same direction it just moves the end point, so a
+ * run of n collinear walls becomes a single segment. Anything else, or a
+ * call to breakRun(), starts a new polyline.
+ */
+class SegmentBatch {
+
+	/**
+	 * Whether walls added through NormalMaze.addWall() are marked as drawn,
+	 * so that a wall shared by two cells is added once. Batches filled by
+	 * several threads at once must leave the walls alone.
+	 */
+	final boolean marksWalls;
+
+	// x and y of the points of all polylines, one after the other
+	private double points[] = new double[64];
+	private int numPoints = 0;
+	// index of the first point of each polyline, and one past the last
+	private int starts[] = new int[17];
+	private int numRuns = 0;
+	// whether the last polyline can still be continued
+	private boolean open = false;
+
+
+	SegmentBatch() {
+		this(true);
+	} // end of SegmentBatch()
+
+
+	/**
+	 * @param marksWalls Whether walls added are marked as drawn.
+	 */
+	SegmentBatch(boolean marksWalls) {
+		this.marksWalls = marksWalls;
+	} // end of SegmentBatch()
+
+	/**
+	 * Add a wall from (x0, y0) to (x1, y1).
+	 */
+	void add(double x0, double y0, double x1, double y1) {
+		if (open && points[2 * numPoints - 2] == x0 && points[2 * numPoints - 1] == y0) {
+			// continue the run, in a straight line if possible
+			if (numPoints - starts[numRuns - 1] >= 2) {
+				double dx = x0 - points[2 * numPoints - 4];
+				double dy = y0 - points[2 * numPoints - 3];
+				double ex = x1 - x0;
+				double ey = y1 - y0;
+				if (dx * ey == dy * ex && dx * ex + dy * ey > 0) {
+					points[2 * numPoints - 2] = x1;
+					points[2 * numPoints - 1] = y1;
+					return;
+				}
+			}
+			addPoint(x1, y1);
+			return;
+		}
+
+		if (numRuns + 1 == starts.length)
+			starts = Arrays.copyOf(starts, 2 * starts.length);
+		starts[numRuns++] = numPoints;
+		addPoint(x0, y0);
+		addPoint(x1, y1);
+		open = true;
+	} // end of add()
+
+
+	/**
+	 * Make the next wall added start a new polyline.
+	 */
+	void breakRun() {
+		open = false;
+	} // end of breakRun()
+
+
+	/**
+	 * @return Number of polylines collected.
+	 */
+	int numRuns() {
+		return numRuns;
+	} // end of numRuns()
+
+
+	/**
+	 * @param run Index of a polyline.
+	 * @return Index of its first point.
+	 */
+	int start(int run) {
+		return starts[run];
+	} // end of start()
+
+
+	/**
+	 * @param run Index of a polyline.
+	 * @return One past the index of its last point.
+	 */
+	int end(int run) {
+		return run + 1 < numRuns ? starts[run + 1] : numPoints;
+	} // end of end()
+
+
+	/**
+	 * @param point Index of a point.
+	 * @return x coordinate of the point.
+	 */
+	double x(int point) {
+		return points[2 * point];
+	} // end of x()
+
+
+	/**
+	 * @param point Index of a point.
+	 * @return y coordinate of the point.
+	 */
+	double y(int point) {
+		return points[2 * point + 1];
+	} // end of y()
+
+
+	/**
+	 * Draw every polyline collected with the current pen.
+	 * @param renderer Renderer to draw with.
+	 */
+	void draw(Renderer renderer) {
+		starts[numRuns] = numPoints;
+		renderer.polylines(points, starts, numRuns);
+	} // end of draw()
+
+
+	private void addPoint(double x, double y) {
+		if (2 * numPoints + 2 > points.length)
+			points = Arrays.copyOf(points, 2 * points.length);
+		points[2 * numPoints] = x;
+		points[2 * numPoints + 1] = y;
+		numPoints++;
+	} // end of addPoint()
+
+} // end of class SegmentBatch
@@ -46,6 +46,7 @@ import java.awt.geom.Arc2D;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.GeneralPath;
 import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
 import java.awt.geom.Rectangle2D;
 
 import java.awt.image.BufferedImage;
@@ -597,6 +598,13 @@ public final class StdDraw implements ActionListener, MouseListener, MouseMotion
     // used to control the frame rate
     private static long nextDraw = -1;  
 
+    // smallest number of milliseconds between two copies to the screen made
+    // by drawing methods outside animation mode, 0 for no limit
+    private static int framePeriod = 0;
+
+    // time in milliseconds of the last copy to the screen
+    private static long lastFrame = 0;
+
     // singleton pattern: client can't instantiate
     private StdDraw() { }
 
@@ -930,6 +938,56 @@ public final class StdDraw implements ActionListener, MouseListener, MouseMotion
         draw();
     }
 
+    /**
+     * Draws <em>n</em> line segments at once, and shows them on screen with a
+     * single copy instead of one per segment.
+     * Segment <em>i</em> goes from ({@code segments[4i]}, {@code segments[4i+1]})
+     * to ({@code segments[4i+2]}, {@code segments[4i+3]}).
+     *
+     * @param  segments the coordinates of the segments, four per segment
+     * @param  n the number of segments to draw
+     * @throws IllegalArgumentException if {@code segments[]} holds fewer than
+     *         {@code 4n} coordinates
+     */
+    public static void lines(double[] segments, int n) {
+        if (segments == null) throw new NullPointerException();
+        if (n < 0 || segments.length < 4 * n) throw new IllegalArgumentException("array too short for " + n + " segments");
+        Path2D.Double path = new Path2D.Double(Path2D.WIND_NON_ZERO, 2 * n);
+        for (int i = 0; i < 4 * n; i += 4) {
+            path.moveTo(scaleX(segments[i]), scaleY(segments[i + 1]));
+            path.lineTo(scaleX(segments[i + 2]), scaleY(segments[i + 3]));
+        }
+        offscreen.draw(path);
+        draw();
+    }
+
+    /**
+     * Draws <em>n</em> open polylines at once, and shows them on screen with a
+     * single copy. Point <em>j</em> is ({@code points[2j]}, {@code points[2j+1]}),
+     * and polyline <em>i</em> joins points {@code starts[i]} to
+     * {@code starts[i+1] - 1} in order.
+     *
+     * @param  points the coordinates of the points, two per point
+     * @param  starts the index of the first point of each polyline, followed
+     *         by the number of points
+     * @param  n the number of polylines to draw
+     * @throws IllegalArgumentException if {@code starts[]} holds fewer than
+     *         {@code n + 1} indices
+     */
+    public static void polylines(double[] points, int[] starts, int n) {
+        if (points == null) throw new NullPointerException();
+        if (starts == null) throw new NullPointerException();
+        if (n < 0 || starts.length < n + 1) throw new IllegalArgumentException("array too short for " + n + " polylines");
+        Path2D.Double path = new Path2D.Double(Path2D.WIND_NON_ZERO, starts[n]);
+        for (int i = 0; i < n; i++) {
+            path.moveTo(scaleX(points[2 * starts[i]]), scaleY(points[2 * starts[i] + 1]));
+            for (int j = starts[i] + 1; j < starts[i + 1]; j++)
+                path.lineTo(scaleX(points[2 * j]), scaleY(points[2 * j + 1]));
+        }
+        offscreen.draw(path);
+        draw();
+    }
+
     /**
      * Draws one pixel at (<em>x</em>, <em>y</em>).
      * This method is private because pixels depend on the display.
@@ -1477,13 +1535,27 @@ public final class StdDraw implements ActionListener, MouseListener, MouseMotion
         }
 
         defer = false;
-        draw();
+        present();
         defer = true;
 
         // when are we allowed to draw again
         nextDraw = millis + t;
     }
 
+    /**
+     * Limits how often drawing methods copy the drawing to the screen outside
+     * animation mode. A shape drawn less than a frame after the last copy is
+     * shown by a later copy, at the latest by the next call to {@code show()}.
+     *
+     * @param framesPerSecond the largest number of copies per second, or 0
+     *        to copy after every shape (the default)
+     * @throws IllegalArgumentException if {@code framesPerSecond} is negative
+     */
+    public static void setFrameRate(int framesPerSecond) {
+        if (framesPerSecond < 0) throw new IllegalArgumentException("frame rate must be non-negative");
+        framePeriod = framesPerSecond == 0 ? 0 : Math.max(1, 1000 / framesPerSecond);
+    }
+
     /**
      * Display on-screen and turn off animation mode:
      * subsequent calls to
@@ -1494,14 +1566,21 @@ public final class StdDraw implements ActionListener, MouseListener, MouseMotion
     public static void show() {
         defer = false;
         nextDraw = -1;
-        draw();
+        present();
     }
 
-    // draw onscreen if defer is false
+    // draw onscreen if defer is false and the last frame is old enough
     private static void draw() {
         if (defer) return;
+        if (framePeriod > 0 && System.currentTimeMillis() - lastFrame < framePeriod) return;
+        present();
+    }
+
+    // copy the offscreen image to the screen
+    private static void present() {
         onscreen.drawImage(offscreenImage, 0, 0, null);
         frame.repaint();
+        lastFrame = System.currentTimeMillis();
     }
 
 
@@ -0,0 +1,88 @@
+package maze;
+
+import java.awt.Color;
+
+/**
+ * Renderer drawing in the StdDraw window.
+ *
+ * A picture is drawn offscreen and put on screen by show(). Drawing after
+ * that, such as footprints, goes on screen at most framesPerSecond times a
+ * second, so that drawing many small things does not repaint the window
+ * each time.
+ */
+public class StdDrawRenderer implements Renderer {
+
+	private final int framesPerSecond;
+
+	/**
+	 * Renderer putting every drawing on screen at once.
+	 */
+	public StdDrawRenderer() {
+		this(0);
+	} // end of StdDrawRenderer()
+
+
+	/**
+	 * @param framesPerSecond Largest number of times a second the window is
+	 * repainted outside show(), or 0 for no limit.
+	 */
+	public StdDrawRenderer(int framesPerSecond) {
+		if (framesPerSecond < 0)
+			throw new IllegalArgumentException("Frame rate must not be negative.");
+		this.framesPerSecond = framesPerSecond;
+	} // end of StdDrawRenderer()
+
+
+	@Override
+	public boolean isVisible() {
+		return true;
+	} // end of isVisible()
+
+
+	@Override
+	public void begin(double minX, double maxX, double minY, double maxY) {
+		StdDraw.setCanvasSize(900, 650);
+		StdDraw.setXscale(minX, maxX);
+		StdDraw.setYscale(minY, maxY);
+		StdDraw.setFrameRate(framesPerSecond);
+		// draw everything offscreen until show()
+		StdDraw.show(0);
+	} // end of begin()
+
+
+	@Override
+	public void setPenColor(Color color) {
+		StdDraw.setPenColor(color);
+	} // end of setPenColor()
+
+
+	@Override
+	public void setPenRadius(double radius) {
+		StdDraw.setPenRadius(radius);
+	} // end of setPenRadius()
+
+
+	@Override
+	public void filledCircle(double x, double y, double radius) {
+		StdDraw.filledCircle(x, y, radius);
+	} // end of filledCircle()
+
+
+	@Override
+	public void lines(double segments[], int n) {
+		StdDraw.lines(segments, n);
+	} // end of lines()
+
+
+	@Override
+	public void polylines(double points[], int starts[], int n) {
+		StdDraw.polylines(points, starts, n);
+	} // end of polylines()
+
+
+	@Override
+	public void show() {
+		StdDraw.show();
+	} // end of show()
+
+} // end of class StdDrawRenderer
@@ -0,0 +1,175 @@
+package maze;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Renderer recording a picture as an SVG document.
+ *
+ * Every call becomes one element: a circle, or a path holding a whole batch
+ * of lines or polylines. The document uses coordinates in cells, flipped so
+ * that y goes down, and is pixelsPerCell pixels a cell at its natural size.
+ */
+public class SvgRenderer implements Renderer {
+
+	// size of a default StdDraw window, to which pen radii are relative
+	private static final int STDDRAW_SIZE = 512;
+
+	private final double pixelsPerCell;
+	private final StringBuilder body = new StringBuilder();
+	private double minX = 0;
+	private double maxY = 0;
+	private double width = 0;
+	private double height = 0;
+	private String penColor = "#000000";
+	private double penRadius = DEFAULT_PEN_RADIUS;
+
+	/**
+	 * @param pixelsPerCell Width of a cell in pixels.
+	 */
+	public SvgRenderer(double pixelsPerCell) {
+		if (!(pixelsPerCell > 0))
+			throw new IllegalArgumentException("A cell must be wider than 0 pixels.");
+		this.pixelsPerCell = pixelsPerCell;
+	} // end of SvgRenderer()
+
+
+	@Override
+	public boolean isVisible() {
+		return true;
+	} // end of isVisible()
+
+
+	@Override
+	public void begin(double minX, double maxX, double minY, double maxY) {
+		this.minX = minX;
+		this.maxY = maxY;
+		width = maxX - minX;
+		height = maxY - minY;
+		body.setLength(0);
+		penColor = "#000000";
+		penRadius = DEFAULT_PEN_RADIUS;
+	} // end of begin()
+
+
+	@Override
+	public void setPenColor(Color color) {
+		penColor = String.format("#%06x", color.getRGB() & 0xFFFFFF);
+	} // end of setPenColor()
+
+
+	@Override
+	public void setPenRadius(double radius) {
+		if (!(radius >= 0))
+			throw new IllegalArgumentException("Pen radius must not be negative.");
+		penRadius = radius;
+	} // end of setPenRadius()
+
+
+	@Override
+	public void filledCircle(double x, double y, double radius) {
+		body.append("<circle cx=\"");
+		number(x - minX);
+		body.append("\" cy=\"");
+		number(maxY - y);
+		body.append("\" r=\"");
+		number(radius);
+		body.append("\" fill=\"").append(penColor).append("\"/>\n");
+	} // end of filledCircle()
+
+
+	@Override
+	public void lines(double segments[], int n) {
+		if (n == 0)
+			return;
+		startPath();
+		for (int i = 0; i < 4 * n; i += 4) {
+			point('M', segments[i], segments[i + 1]);
+			point('L', segments[i + 2], segments[i + 3]);
+		}
+		endPath();
+	} // end of lines()
+
+
+	@Override
+	public void polylines(double points[], int starts[], int n) {
+		if (n == 0)
+			return;
+		startPath();
+		for (int i = 0; i < n; i++)
+			for (int j = starts[i]; j < starts[i + 1]; j++)
+				point(j == starts[i] ? 'M' : 'L', points[2 * j], points[2 * j + 1]);
+		endPath();
+	} // end of polylines()
+
+
+	@Override
+	public void show() {
+	} // end of show()
+
+
+	/**
+	 * Write the picture drawn since the last begin() as an SVG document.
+	 * @param out Writer to write to; it is not closed.
+	 * @throws IOException If writing fails.
+	 */
+	public void write(Writer out) throws IOException {
+		StringBuilder head = new StringBuilder();
+		head.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"");
+		head.append(Math.round(width * pixelsPerCell)).append("\" height=\"");
+		head.append(Math.round(height * pixelsPerCell)).append("\" viewBox=\"0 0 ");
+		head.append(width).append(' ').append(height).append("\">\n");
+		head.append("<rect width=\"100%\" height=\"100%\" fill=\"#ffffff\"/>\n");
+		out.write(head.toString());
+		out.append(body);
+		out.write("</svg>\n");
+	} // end of write()
+
+
+	private void startPath() {
+		body.append("<path fill=\"none\" stroke=\"").append(penColor);
+		body.append("\" stroke-width=\"");
+		// StdDraw draws lines penRadius * STDDRAW_SIZE pixels wide
+		number(penRadius * STDDRAW_SIZE / pixelsPerCell);
+		body.append("\" stroke-linecap=\"round\" stroke-linejoin=\"round\" d=\"");
+	} // end of startPath()
+
+
+	private void endPath() {
+		body.append("\"/>\n");
+	} // end of endPath()
+
+
+	private void point(char command, double x, double y) {
+		body.append(command);
+		number(x - minX);
+		body.append(' ');
+		number(maxY - y);
+	} // end of point()
+
+
+	/**
+	 * Append a number rounded to three decimals, without trailing zeros.
+	 */
+	private void number(double value) {
+		long thousandths = Math.round(value * 1000);
+		if (thousandths < 0) {
+			body.append('-');
+			thousandths = -thousandths;
+		}
+		body.append(thousandths / 1000);
+		int fraction = (int) (thousandths % 1000);
+		if (fraction != 0) {
+			body.append('.');
+			if (fraction < 100)
+				body.append('0');
+			if (fraction < 10)
+				body.append('0');
+			while (fraction % 10 == 0)
+				fraction /= 10;
+			body.append(fraction);
+		}
+	} // end of number()
+
+} // end of class SvgRenderer
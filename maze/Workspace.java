@@ -0,0 +1,140 @@
+package maze;
+
+import java.util.Arrays;
+
+/**
+ * Per-cell arrays that a solver or generator keeps from one run to the next,
+ * so that running it many times on small mazes allocates nothing once the
+ * arrays are large enough.
+ *
+ * Cells are numbered as in CellGrid. A cell counts as visited by the current
+ * run only if its stamp equals the current epoch, so begin() clears every
+ * mark in O(1) by moving to the next epoch. A second, independent set of
+ * marks, such as the targets of a search, works the same way. The other
+ * arrays are only grown, never cleared: a run must write an entry before
+ * reading it.
+ *
+ * A workspace may be shared by several solvers and generators as long as
+ * they do not run at the same time.
+ */
+public class Workspace {
+
+	private int stamp[] = new int[0];
+	private int markStamp[] = new int[0];
+	private int epoch = 0;
+
+	private int queue[];
+	private int stack[];
+	private int parent[];
+	private int distance[];
+
+	// view kept for grid()
+	private CellGrid grid;
+
+	/**
+	 * Start a run over a maze of numCells cells, with no cell visited or marked.
+	 * @param numCells Number of cells of the maze.
+	 */
+	public void begin(int numCells) {
+		if (stamp.length < numCells) {
+			stamp = new int[numCells];
+			markStamp = new int[numCells];
+			epoch = 0;
+		}
+		if (++epoch == 0) {
+			Arrays.fill(stamp, 0);
+			Arrays.fill(markStamp, 0);
+			epoch = 1;
+		}
+	} // end of begin()
+
+
+	/**
+	 * @param id Cell id.
+	 * @return True if the cell was visited since the last begin().
+	 */
+	public boolean isVisited(int id) {
+		return stamp[id] == epoch;
+	} // end of isVisited()
+
+
+	/**
+	 * Mark a cell as visited until the next begin().
+	 * @param id Cell id.
+	 */
+	public void visit(int id) {
+		stamp[id] = epoch;
+	} // end of visit()
+
+
+	/**
+	 * @param id Cell id.
+	 * @return True if the cell was marked since the last begin().
+	 */
+	public boolean isMarked(int id) {
+		return markStamp[id] == epoch;
+	} // end of isMarked()
+
+
+	/**
+	 * Mark a cell until the next begin(), apart from visiting it.
+	 * @param id Cell id.
+	 */
+	public void mark(int id) {
+		markStamp[id] = epoch;
+	} // end of mark()
+
+
+	/**
+	 * @return An array of at least as many ints as the largest maze begun.
+	 */
+	public int[] queue() {
+		if (queue == null || queue.length < stamp.length)
+			queue = new int[stamp.length];
+		return queue;
+	} // end of queue()
+
+
+	/**
+	 * @return An array of at least as many ints as the largest maze begun.
+	 */
+	public int[] stack() {
+		if (stack == null || stack.length < stamp.length)
+			stack = new int[stamp.length];
+		return stack;
+	} // end of stack()
+
+
+	/**
+	 * @return An array of at least as many ints as the largest maze begun.
+	 */
+	public int[] parent() {
+		if (parent == null || parent.length < stamp.length)
+			parent = new int[stamp.length];
+		return parent;
+	} // end of parent()
+
+
+	/**
+	 * @return An array of at least as many ints as the largest maze begun.
+	 */
+	public int[] distance() {
+		if (distance == null || distance.length < stamp.length)
+			distance = new int[stamp.length];
+		return distance;
+	} // end of distance()
+
+
+	/**
+	 * View of a maze, reused while the same maze keeps the same size and type.
+	 * @param maze The maze to view.
+	 * @return A CellGrid of the maze.
+	 */
+	public CellGrid grid(Maze maze) {
+		if (grid == null || grid.maze != maze || grid.sizeR != maze.sizeR
+				|| grid.sizeC != maze.sizeC || grid.type != maze.type)
+			grid = new CellGrid(maze);
+		return grid;
+	} // end of grid()
+
+} // end of class Workspace
@@ -0,0 +1,114 @@
+package mazeGenerator;
+
+import maze.CellGrid;
+import maze.Maze;
+
+import java.util.Arrays;
+
+/**
+ * Places the entrance and exit of a generated perfect maze on the pair of
+ * edge cells with the longest path between them.
+ *
+ * A perfect maze is a tree, and in a tree the edge cell farthest from any
+ * cell is one end of a longest path between edge cells. So two breadth-first
+ * searches are enough: one from any edge cell to find one end, and one from
+ * that end to find the other. Both searches run on cell ids with an int
+ * queue and a bit set of reached cells, which are kept for the next maze of
+ * the same size.
+ */
+public class DiameterPlacement
+{
+
+    private CellGrid grid;
+    private int queue[];
+    private long reached[];
+    private int numExits;
+    private int farthest;
+    private int distance = -1;
+
+    /**
+     * Algorithm: double sweep
+     * ************************************************************************
+     * 1. Search breadth-first from an edge cell, and take the last edge cell
+     *    of the deepest level holding edge cells as a.
+     * 2. Search breadth-first from a in the same way, and take the edge cell
+     *    found as b.
+     * 3. Make a the entrance and b the exit.
+     * ************************************************************************
+     *
+     * @param maze A perfect maze.
+     * @return Number of moves between the new entrance and exit.
+     */
+    public int place(Maze maze)
+    {
+        grid = new CellGrid(maze);
+        if (queue == null || queue.length != grid.numCells)
+        {
+            queue = new int[grid.numCells];
+            reached = new long[(grid.numCells + 63) >>> 6];
+        }
+        // only TUNNEL mazes have a tunnel exit to look at
+        numExits = grid.type == Maze.TUNNEL ? grid.dirs.length + 1 : grid.dirs.length;
+
+        // the first cell is on row 0, so it is always on the edge
+        sweep(0);
+        int a = farthest;
+        sweep(a);
+        maze.entrance = grid.cell(a);
+        maze.exit = grid.cell(farthest);
+        return distance;
+    } // end of place()
+
+    /**
+     * @return Number of moves between the entrance and exit set by the last
+     * place(), or -1 if place() was not called.
+     */
+    public int distance()
+    {
+        return distance;
+    } // end of distance()
+
+    /**
+     * Search breadth-first from a cell one level at a time, setting farthest
+     * and distance to the edge cell of the deepest level holding one.
+     */
+    private void sweep(int source)
+    {
+        Arrays.fill(reached, 0L);
+        int head = 0, tail = 0;
+        queue[tail++] = source;
+        reached[source >>> 6] |= 1L << source;
+        farthest = source;
+        distance = 0;
+        for (int level = 0; head < tail; level++)
+        {
+            int levelEnd = tail;
+            while (head < levelEnd)
+            {
+                int cell = queue[head++];
+                if (isOnEdge(cell))
+                {
+                    farthest = cell;
+                    distance = level;
+                }
+                for (int e = 0; e < numExits; e++)
+                {
+                    int next = e < grid.dirs.length ? grid.move(cell, grid.dirs[e]) : grid.tunnel(cell);
+                    if (next >= 0 && (reached[next >>> 6] & 1L << next) == 0)
+                    {
+                        reached[next >>> 6] |= 1L << next;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+    } // end of sweep()
+
+    private boolean isOnEdge(int cell)
+    {
+        int r = grid.row(cell);
+        // Maze.isOnEdge() takes the column without the hexagon shift
+        return grid.maze.isOnEdge(r, cell - r * grid.sizeC);
+    } // end of isOnEdge()
+
+} // end of class DiameterPlacement
@@ -12,7 +12,21 @@ public class KruskalGenerator implements MazeGenerator
     private HashSet<Edge> edgeSet;
     private HashSet<TreeSet<Cell>> treeSet;
     private int type;
-    private boolean[][] marked;
+    private final Workspace workspace;
+    private int sizeC;
+
+    public KruskalGenerator()
+    {
+        this(new Workspace());
+    }
+
+    /**
+     * @param workspace Workspace to keep the cell marks in.
+     */
+    public KruskalGenerator(Workspace workspace)
+    {
+        this.workspace = workspace;
+    }
 
 
     /**
@@ -82,7 +96,8 @@ public class KruskalGenerator implements MazeGenerator
         edgeSet = new HashSet<>();
         treeSet = new HashSet<>();
         type = maze.type;
-        marked = new boolean[maze.sizeR][maze.sizeC];
+        sizeC = maze.sizeC;
+        workspace.begin(maze.sizeR * maze.sizeC);
 
         ArrayList<Integer> directions = getDirections();
 
@@ -262,7 +277,7 @@ public class KruskalGenerator implements MazeGenerator
      */
     private void mark(Cell cell)
     {
-        marked[cell.r][cell.c - hexMapping(cell.r)] = true;
+        workspace.visit(cell.r * sizeC + cell.c - hexMapping(cell.r));
     }
 
     /**
@@ -273,6 +288,6 @@ public class KruskalGenerator implements MazeGenerator
      */
     private boolean isMarked(Cell cell)
     {
-        return marked[cell.r][cell.c - hexMapping(cell.r)];
+        return workspace.isVisited(cell.r * sizeC + cell.c - hexMapping(cell.r));
     }
 } // end of class KruskalGenerator
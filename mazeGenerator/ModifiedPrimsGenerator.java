@@ -2,6 +2,7 @@ package mazeGenerator;
 
 import maze.Cell;
 import maze.Maze;
+import maze.Workspace;
 
 import java.util.*;
 
@@ -12,8 +13,22 @@ import java.util.*;
 public class ModifiedPrimsGenerator implements MazeGenerator
 {
 
-    private boolean visited[][];
+    private final Workspace workspace;
     private int type;
+    private int sizeC;
+
+    public ModifiedPrimsGenerator()
+    {
+        this(new Workspace());
+    }
+
+    /**
+     * @param workspace Workspace to keep the visited marks in.
+     */
+    public ModifiedPrimsGenerator(Workspace workspace)
+    {
+        this.workspace = workspace;
+    }
 
     /**
      * Modified Prim's Algorithmn for generating the Maze
@@ -39,8 +54,9 @@ public class ModifiedPrimsGenerator implements MazeGenerator
     @Override
     public void generateMaze(Maze maze)
     {
-        visited = new boolean[maze.sizeR][maze.sizeC];
         type = maze.type;
+        sizeC = maze.sizeC;
+        workspace.begin(maze.sizeR * maze.sizeC);
 
         if (type != Maze.TUNNEL)
             modifiedPrims(maze.entrance);
@@ -113,7 +129,7 @@ public class ModifiedPrimsGenerator implements MazeGenerator
 
     private void setVisited(int row, int column)
     {
-        visited[row][columnValue(row, column)] = true;
+        workspace.visit(row * sizeC + columnValue(row, column));
     }
 
     /**
@@ -195,6 +211,6 @@ public class ModifiedPrimsGenerator implements MazeGenerator
 
     private boolean isVisited(int row, int column)
     {
-        return visited[row][columnValue(row, column)];
+        return workspace.isVisited(row * sizeC + columnValue(row, column));
     }
 } // end of class ModifiedPrimsGenerator
@@ -2,6 +2,7 @@ package mazeGenerator;
 
 import maze.Cell;
 import maze.Maze;
+import maze.Workspace;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -13,8 +14,22 @@ import java.util.Random;
 public class RecursiveBacktrackerGenerator implements MazeGenerator
 {
 
-    private boolean visited[][];
+    private final Workspace workspace;
     private int type;
+    private int sizeC;
+
+    public RecursiveBacktrackerGenerator()
+    {
+        this(new Workspace());
+    }
+
+    /**
+     * @param workspace Workspace to keep the visited marks in.
+     */
+    public RecursiveBacktrackerGenerator(Workspace workspace)
+    {
+        this.workspace = workspace;
+    }
 
     /**
      * Function to call the recursive function with the initial cell
@@ -24,8 +39,9 @@ public class RecursiveBacktrackerGenerator implements MazeGenerator
     @Override
     public void generateMaze(Maze maze)
     {
-        visited = new boolean[maze.sizeR][maze.sizeC];
         type = maze.type;
+        sizeC = maze.sizeC;
+        workspace.begin(maze.sizeR * maze.sizeC);
 
         recursiveBackTracker(maze.entrance);
 
@@ -120,7 +136,7 @@ public class RecursiveBacktrackerGenerator implements MazeGenerator
      */
     private void setVisited(Cell cell)
     {
-        visited[cell.r][cell.c - hexMapping(cell.r)] = true;
+        workspace.visit(cell.r * sizeC + cell.c - hexMapping(cell.r));
     }
 
     /**
@@ -131,6 +147,6 @@ public class RecursiveBacktrackerGenerator implements MazeGenerator
      */
     private boolean isVisited(Cell cell)
     {
-        return visited[cell.r][cell.c - hexMapping(cell.r)];
+        return workspace.isVisited(cell.r * sizeC + cell.c - hexMapping(cell.r));
     }
 } // end of class RecursiveBacktrackerGenerator
\ No newline at end of file
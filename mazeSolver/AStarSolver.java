@@ -0,0 +1,189 @@
+package mazeSolver;
+
+import maze.CellGrid;
+import maze.Maze;
+import maze.Workspace;
+
+/**
+ * Implements the A* maze solving algorithm.
+ *
+ * The distances and parents live in a Workspace kept between solves, with a
+ * cell's distance only valid once it is marked visited, so nothing has to be
+ * cleared or allocated per solve. If the workspace is shared, call path()
+ * before it is used by another run.
+ */
+public class AStarSolver implements MazeSolver
+{
+
+    private final Workspace workspace;
+    private Maze maze;
+    private CellGrid grid;
+    private Heuristic heuristic;
+    private IntMinHeap open;
+    private int distance[];
+    private int parent[];
+    private int goal;
+    private boolean solved = false;
+    private Path path;
+    private int cellsExplored;
+
+    public AStarSolver()
+    {
+        this(new Workspace());
+    }
+
+    /**
+     * @param workspace Workspace to keep the distances and parents in.
+     */
+    public AStarSolver(Workspace workspace)
+    {
+        this.workspace = workspace;
+    }
+
+    /**
+     * Algorithm: A*
+     * ************************************************************************
+     * 1. Put the entrance in the open heap with key f = g + h, where g is the
+     *    number of steps taken from the entrance and h is the heuristic
+     *    distance to the exit.
+     * 2. Remove the cell with the smallest f (ties go to the smaller h) from
+     *    the heap and mark it as explored.
+     * 3. If the cell is the exit
+     *      3.1. STOP
+     * 4. For every neighbour towards which there is no wall, and the other
+     *    end of the tunnel if there is one:
+     *      4.1. If it can be reached in fewer steps than known so far, update
+     *           its g and its key in the heap.
+     * 5. Repeat from step 2 until the heap is empty.
+     *
+     * The heuristic is consistent, so an explored cell already has its
+     * smallest g, step 4.1 never applies to it, and every cell is explored at
+     * most once.
+     * ************************************************************************
+     *
+     * @param maze The maze to solve.
+     */
+    @Override
+    public void solveMaze(Maze maze)
+    {
+        this.maze = maze;
+        grid = workspace.grid(maze);
+        cellsExplored = 0;
+        solved = false;
+        path = null;
+
+        int numCells = grid.numCells;
+        if (open == null || open.capacity() != numCells)
+            open = new IntMinHeap(numCells);
+        else
+            open.clear();
+        workspace.begin(numCells);
+        distance = workspace.distance();
+        parent = workspace.parent();
+
+        goal = grid.id(maze.exit);
+        if (heuristic == null || !heuristic.isFor(grid, goal))
+            heuristic = new Heuristic(grid, goal);
+        aStar(grid.id(maze.entrance), goal);
+    } // end of solveMaze()
+
+
+    @Override
+    public boolean isSolved()
+    {
+        return solved;
+    } // end of isSolved()
+
+
+    @Override
+    public int cellsExplored()
+    {
+        return cellsExplored;
+    } // end of cellsExplored()
+
+
+    /**
+     * Follow the parent pointers back from the exit on the first call, and
+     * return the same path afterwards.
+     */
+    @Override
+    public Path path()
+    {
+        if (path == null && solved)
+            path = tracePath(goal);
+        return path;
+    } // end of path()
+
+    /**
+     * Run the search from start until goal is explored or no cell is left.
+     *
+     * @param start: Id of the entrance cell.
+     * @param goal: Id of the exit cell.
+     */
+    private void aStar(int start, int goal)
+    {
+        workspace.visit(start);
+        distance[start] = 0;
+        parent[start] = start;
+        open.push(start, key(0, heuristic.estimate(start)));
+
+        while (!open.isEmpty())
+        {
+            int current = open.pop();
+            cellsExplored++;
+            maze.drawFtPrt(grid.cell(current));
+
+            if (current == goal)
+            {
+                solved = true;
+                return;
+            }
+
+            int step = distance[current] + 1;
+            for (int dir : grid.dirs)
+                relax(current, grid.move(current, dir), step);
+            relax(current, grid.tunnel(current), step);
+        }
+    }
+
+    /**
+     * Update the distance of a cell if it can be reached in fewer steps.
+     *
+     * @param current: Id of the cell being explored.
+     * @param next: Id of the cell reached, or -1 if the move is not possible.
+     * @param step: Number of steps needed to reach it through the current cell.
+     */
+    private void relax(int current, int next, int step)
+    {
+        if (next < 0 || (workspace.isVisited(next) && step >= distance[next]))
+            return;
+
+        workspace.visit(next);
+        distance[next] = step;
+        parent[next] = current;
+        open.push(next, key(step, heuristic.estimate(next)));
+    }
+
+    /**
+     * Follow the parent pointers back from the goal to the entrance.
+     *
+     * @param goal: Id of the exit cell.
+     * @return The path from the entrance to the exit.
+     */
+    private Path tracePath(int goal)
+    {
+        int cells[] = new int[distance[goal] + 1];
+        for (int i = cells.length - 1, c = goal; i >= 0; i--, c = parent[c])
+            cells[i] = c;
+        return new Path(cells);
+    }
+
+    /**
+     * Heap key ordering cells by f = g + h, then by h.
+     */
+    private static long key(int g, int h)
+    {
+        return ((long) (g + h) << 32) | h;
+    }
+
+} // end of class AStarSolver
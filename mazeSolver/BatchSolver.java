@@ -0,0 +1,224 @@
+package mazeSolver;
+
+import maze.CellAccess;
+import maze.Workspace;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Solves many (source, target) queries on one maze.
+ *
+ * Queries are grouped by source, and a single BFS from each distinct source
+ * answers all the queries of its group, stopping as soon as all their targets
+ * are reached. The groups are shared out among worker threads, each running
+ * its searches in a workspace that is kept by the solver and reused by later
+ * calls, so a warm solver only allocates the results.
+ */
+public class BatchSolver
+{
+
+    private final CellAccess access;
+    private final int dirs[];
+    private final ForkJoinPool pool;
+    private final ConcurrentLinkedQueue<Workspace> workspaces = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Results of a batch, indexed like the queries.
+     */
+    public static class Result
+    {
+        /**
+         * distances[i] is the number of moves from sources[i] to targets[i],
+         * or -1 if the target cannot be reached.
+         */
+        public final int distances[];
+
+        /**
+         * paths[i] is a shortest path from sources[i] to targets[i], or null
+         * if the target cannot be reached or paths were not asked for.
+         */
+        public final Path paths[];
+
+        Result(int distances[], Path paths[])
+        {
+            this.distances = distances;
+            this.paths = paths;
+        }
+    }
+
+    /**
+     * Solver running on the common ForkJoinPool.
+     *
+     * @param access Read-only view of the maze.
+     */
+    public BatchSolver(CellAccess access)
+    {
+        this(access, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param access Read-only view of the maze.
+     * @param pool   Pool running the searches.
+     */
+    public BatchSolver(CellAccess access, ForkJoinPool pool)
+    {
+        this.access = access;
+        this.dirs = CellAccess.directions(access.type());
+        this.pool = pool;
+    }
+
+    /**
+     * Answer a batch of queries.
+     *
+     * @param sources   Ids of the first cell of each query.
+     * @param targets   Ids of the last cell of each query, same length as sources.
+     * @param withPaths True to build the path of every query, false for distances only.
+     * @return Distances, and paths if asked for, of every query.
+     */
+    public Result solve(int sources[], int targets[], boolean withPaths)
+    {
+        if (sources.length != targets.length)
+            throw new IllegalArgumentException("There must be as many targets as sources.");
+
+        int numQueries = sources.length;
+        int distances[] = new int[numQueries];
+        Path paths[] = withPaths ? new Path[numQueries] : null;
+
+        // order queries by source: source in the high half, query index in the low half
+        long order[] = new long[numQueries];
+        for (int i = 0; i < numQueries; i++)
+            order[i] = ((long) sources[i] << 32) | i;
+        Arrays.sort(order);
+
+        // groupStart[g] is the position in order of the first query of group g
+        int groupStart[] = new int[numQueries + 1];
+        int count = 0;
+        for (int i = 0; i < numQueries; i++)
+            if (i == 0 || (order[i] >>> 32) != (order[i - 1] >>> 32))
+                groupStart[count++] = i;
+        groupStart[count] = numQueries;
+        int numGroups = count;
+
+        AtomicInteger nextGroup = new AtomicInteger();
+        int numWorkers = Math.max(1, Math.min(pool.getParallelism(), numGroups));
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (int w = 0; w < numWorkers; w++)
+        {
+            workers.add(() -> {
+                Workspace ws = borrow();
+                try
+                {
+                    for (int g = nextGroup.getAndIncrement(); g < numGroups; g = nextGroup.getAndIncrement())
+                        solveGroup(ws, order, groupStart[g], groupStart[g + 1], targets, distances, paths);
+                }
+                finally
+                {
+                    workspaces.add(ws);
+                }
+                return null;
+            });
+        }
+
+        try
+        {
+            for (Future<Void> done : pool.invokeAll(workers))
+                done.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch was interrupted.", e);
+        }
+        catch (ExecutionException e)
+        {
+            throw new IllegalStateException("A query failed.", e.getCause());
+        }
+
+        return new Result(distances, paths);
+    }
+
+    private Workspace borrow()
+    {
+        Workspace ws = workspaces.poll();
+        return ws != null ? ws : new Workspace();
+    }
+
+    /**
+     * Run one BFS for the queries order[from, to), which share a source, in
+     * a workspace of the calling thread. The targets of the group are marked
+     * so that the search stops once they are all visited.
+     */
+    private void solveGroup(Workspace ws, long order[], int from, int to, int targets[],
+                            int distances[], Path paths[])
+    {
+        ws.begin(access.numCells());
+        int queue[] = ws.queue();
+        int distance[] = ws.distance();
+        int parent[] = ws.parent();
+
+        int source = (int) (order[from] >>> 32);
+        int remaining = 0;
+        for (int q = from; q < to; q++)
+        {
+            int target = targets[(int) order[q]];
+            if (!ws.isMarked(target))
+            {
+                ws.mark(target);
+                remaining++;
+            }
+        }
+
+        int head = 0, tail = 0;
+        queue[tail++] = source;
+        ws.visit(source);
+        distance[source] = 0;
+        parent[source] = source;
+        if (ws.isMarked(source))
+            remaining--;
+
+        while (head < tail && remaining > 0)
+        {
+            int cell = queue[head++];
+            for (int e = 0; e <= dirs.length; e++)
+            {
+                int next = e < dirs.length ? access.move(cell, dirs[e]) : access.tunnel(cell);
+                if (next < 0 || ws.isVisited(next))
+                    continue;
+                ws.visit(next);
+                distance[next] = distance[cell] + 1;
+                parent[next] = cell;
+                queue[tail++] = next;
+                if (ws.isMarked(next))
+                    remaining--;
+            }
+        }
+
+        for (int q = from; q < to; q++)
+        {
+            int query = (int) order[q];
+            int target = targets[query];
+            if (!ws.isVisited(target))
+            {
+                distances[query] = -1;
+                continue;
+            }
+            distances[query] = distance[target];
+            if (paths != null)
+            {
+                int cells[] = new int[distance[target] + 1];
+                for (int i = cells.length - 1, c = target; i >= 0; i--, c = parent[c])
+                    cells[i] = c;
+                paths[query] = new Path(cells);
+            }
+        }
+    }
+
+} // end of class BatchSolver
@@ -1,38 +1,73 @@
 package mazeSolver;
 
-import maze.Cell;
+import maze.CellGrid;
 import maze.Maze;
-
-import java.util.*;
+import maze.Workspace;
 
 /**
  * Implements Bi-directional BFS maze solving algorithm.
+ *
+ * Each search keeps its visited marks, parents and queue in a Workspace of
+ * its own, kept between solves, so nothing has to be cleared or allocated
+ * per solve until path() builds the solution.
  */
 public class BiDirectionalBFSSolver implements MazeSolver
 {
 
-    private boolean visited[][];
-    private int type;
+    private Maze maze;
+    private CellGrid grid;
     private int cellsExplored;
     private boolean solved = false;
+    private Path path;
+
+    // the two searches; a cell is visited by at most one of them
+    private final Workspace entranceSide = new Workspace();
+    private final Workspace exitSide = new Workspace();
+
+    // parent pointers of the two searches, valid for the cells a search
+    // visited, the cell itself for the root
+    private int entranceParent[];
+    private int exitParent[];
+
+    // array queues, each cell is added to at most one of them, once
+    private int entranceQueue[];
+    private int exitQueue[];
+
+    // cells where the searches met, the exit one -1 if entrance and exit
+    // are the same cell
+    private int entranceMeet;
+    private int exitMeet;
 
 	/**
 	 *	1. Declare two queue's for entrance and exit
      *  2. Add maze entrance to the entrance queue and maze exit cell to the exit queue
-     *  3. remove the cells(from entrance and exit queue ) and mark them as visited
-     *  4. Find the unvisited cells(possible move options where wall does not exists) wrt to the cells
-     *     removed from the queue and add them to the respective queues
-     *  5. Repeat step 3 until maze is solved
+     *  3. Pick the side whose queue holds fewer cells and expand every cell
+     *     of its current level, marking the unvisited cells (possible move
+     *     options where wall does not exist, and tunnels) as visited and
+     *     adding them to that side's queue
+     *  4. Stop as soon as a cell of one side reaches a cell of the other side
+     *  5. Repeat step 3 until maze is solved or one queue is empty
      *  6. Combine these paths to get the final path solution.
 	 */
 
     @Override
     public void solveMaze(Maze maze)
     {
-        visited = new boolean[maze.sizeR][maze.sizeC];
-        this.type = maze.type;
+        this.maze = maze;
+        grid = entranceSide.grid(maze);
         cellsExplored = 0;
-        bfsSolver(maze);
+        solved = false;
+        path = null;
+
+        int numCells = grid.numCells;
+        entranceSide.begin(numCells);
+        exitSide.begin(numCells);
+        entranceParent = entranceSide.parent();
+        exitParent = exitSide.parent();
+        entranceQueue = entranceSide.queue();
+        exitQueue = exitSide.queue();
+
+        bfsSolver(grid.id(maze.entrance), grid.id(maze.exit));
     } // end of solveMaze()
 
     /**
@@ -43,116 +78,166 @@ public class BiDirectionalBFSSolver implements MazeSolver
      * cell visited) from entrance to exit.
      * Combine these paths to get the final path solution.
      *
-     * @param maze: The 2D Maze which has to be solved
+     * Whole levels are expanded at a time, so every meeting found in the
+     * first level where the fronts touch gives a path of the same, shortest,
+     * length.
+     *
+     * @param entrance: Id of the entrance cell
+     * @param exit: Id of the exit cell
      */
-    private void bfsSolver(Maze maze)
+    private void bfsSolver(int entrance, int exit)
     {
+        markAsVisited(entrance, entrance, entranceSide, entranceParent);
+        if (entrance == exit)
+        {
+            solved = true;
+            entranceMeet = entrance;
+            exitMeet = -1;
+            return;
+        }
+        markAsVisited(exit, exit, exitSide, exitParent);
 
-        Queue<Cell> entranceQueue = new LinkedList<>();
-        Queue<Cell> exitQueue = new LinkedList<>();
-
-        entranceQueue.add(maze.entrance);
-        exitQueue.add(maze.exit);
+        int entranceHead = 0, entranceTail = 1;
+        int exitHead = 0, exitTail = 1;
+        entranceQueue[0] = entrance;
+        exitQueue[0] = exit;
 
-        do
+        while (entranceHead < entranceTail && exitHead < exitTail)
         {
-            Cell entranceCell = entranceQueue.poll();
-            if (entranceCell != null)
+            if (entranceTail - entranceHead <= exitTail - exitHead)
             {
-                if (!isVisited(entranceCell.r, entranceCell.c))
+                int levelEnd = entranceTail;
+                while (entranceHead < levelEnd)
                 {
-                    markAsVisited(maze, entranceCell);
-                    entranceQueue.addAll(findPossibleMoveOptions(entranceCell));
+                    int cell = entranceQueue[entranceHead++];
+                    entranceTail = expand(cell, entranceSide, exitSide,
+                            entranceParent, entranceQueue, entranceTail);
+                    if (solved)
+                        return;
                 }
-                else
-                    solved = true;
             }
-
-            Cell exitCell = exitQueue.poll();
-            if (!solved && exitCell != null)
+            else
             {
-                if (!isVisited(exitCell.r, exitCell.c))
+                int levelEnd = exitTail;
+                while (exitHead < levelEnd)
                 {
-                    markAsVisited(maze, exitCell);
-                    exitQueue.addAll(findPossibleMoveOptions(exitCell));
+                    int cell = exitQueue[exitHead++];
+                    exitTail = expand(cell, exitSide, entranceSide,
+                            exitParent, exitQueue, exitTail);
+                    if (solved)
+                        return;
                 }
-                else
-                    solved = true;
             }
-
-        } while (!solved); // continue the loop as long as maze is not solved
-
+        }
     }
 
     /**
-     * Marking the cell as visited
+     * Visit all cells that can be reached from a cell in one move.
      *
-     * @param maze: The maze which has to be solved
-     * @param cell: The cell which has to be marked as visited
+     * @param cell: Id of the cell being expanded
+     * @param side: Search expanding the cell
+     * @param other: The other search
+     * @param parent: Parent pointers of the side expanding the cell
+     * @param queue: Queue of the side expanding the cell
+     * @param tail: Current tail of that queue
+     * @return New tail of the queue
      */
-    private void markAsVisited(Maze maze, Cell cell)
+    private int expand(int cell, Workspace side, Workspace other, int parent[], int queue[], int tail)
     {
-        setVisited(cell.r, cell.c);
-        maze.drawFtPrt(cell);
-        cellsExplored++;
+        for (int dir : grid.dirs)
+        {
+            tail = tryMove(cell, grid.move(cell, dir), side, other, parent, queue, tail);
+            if (solved)
+                return tail;
+        }
+        return tryMove(cell, grid.tunnel(cell), side, other, parent, queue, tail);
     }
 
     /**
-     * Finding all the cells that can be visited wrt to a particular cell
+     * Follow one move from a cell, detecting when it reaches the other side.
      *
-     * @param currentCell
-     * @return List of cells
+     * @return New tail of the queue
      */
-    private ArrayList<Cell> findPossibleMoveOptions(Cell currentCell)
+    private int tryMove(int cell, int next, Workspace side, Workspace other, int parent[],
+                        int queue[], int tail)
     {
+        if (next < 0 || side.isVisited(next))
+            return tail;
 
-        ArrayList<Cell> possibleCells = new ArrayList<>();
-
-        if (type == Maze.TUNNEL && currentCell.tunnelTo != null)
+        if (other.isVisited(next))
         {
-            Cell tunneledCell = currentCell.tunnelTo;
-            if (!isVisited(tunneledCell.r, tunneledCell.c))
-                possibleCells.add(currentCell.tunnelTo);
+            solved = true;
+            entranceMeet = side == entranceSide ? cell : next;
+            exitMeet = side == entranceSide ? next : cell;
+            return tail;
         }
-        for (int index : getDirections())
-        {
-            if (!currentCell.wall[index].present)
-            {
-                Cell nextCell = currentCell.neigh[index];
-                if (nextCell != null && !isVisited(nextCell.r, nextCell.c))
-                {
-                    possibleCells.add(nextCell);
-                }
-            }
-        }
-        return possibleCells;
+
+        markAsVisited(next, cell, side, parent);
+        queue[tail] = next;
+        return tail + 1;
     }
 
     /**
-     * Finding the directions
+     * Build the path entrance, ..., entranceSide, exitSide, ..., exit by
+     * following the two sets of parent pointers.
      *
-     * @return List containing all possible direction
+     * @param entranceSide: Cell reached from the entrance
+     * @param exitSide: Adjacent cell reached from the exit
+     * @return The joined path
      */
-    private ArrayList<Integer> getDirections()
+    private Path joinPaths(int entranceSide, int exitSide)
     {
-        ArrayList<Integer> directions;
-
-        if (type == Maze.HEX)
+        int entranceLength = 1;
+        for (int c = entranceSide; entranceParent[c] != c; c = entranceParent[c])
+            entranceLength++;
+        int exitLength = 1;
+        for (int c = exitSide; exitParent[c] != c; c = exitParent[c])
+            exitLength++;
+
+        int result[] = new int[entranceLength + exitLength];
+        int c = entranceSide;
+        for (int i = entranceLength - 1; i >= 0; i--)
         {
-            directions = new ArrayList<>(
-                    Arrays.asList(Maze.EAST, Maze.NORTHEAST, Maze.NORTHWEST,
-                            Maze.WEST, Maze.SOUTHWEST, Maze.SOUTHEAST));
+            result[i] = c;
+            c = entranceParent[c];
         }
-        else
+        c = exitSide;
+        for (int i = entranceLength; i < result.length; i++)
         {
-            directions = new ArrayList<>(
-                    Arrays.asList(Maze.EAST, Maze.NORTH, Maze.WEST,
-                            Maze.SOUTH));
+            result[i] = c;
+            c = exitParent[c];
         }
+        return new Path(result);
+    }
 
-        return directions;
+    /**
+     * Marking the cell as visited
+     *
+     * @param cell: The cell which has to be marked as visited
+     * @param from: The cell it was reached from
+     * @param side: Search visiting it
+     * @param parent: Parent pointers of that search
+     */
+    private void markAsVisited(int cell, int from, Workspace side, int parent[])
+    {
+        side.visit(cell);
+        parent[cell] = from;
+        maze.drawFtPrt(grid.cell(cell));
+        cellsExplored++;
     }
 
+    /**
+     * Join the halves of the solution on the first call, and return the same
+     * path afterwards.
+     */
+    @Override
+    public Path path()
+    {
+        if (path == null && solved)
+            path = exitMeet < 0 ? new Path(new int[] { entranceMeet }) : joinPaths(entranceMeet, exitMeet);
+        return path;
+    } // end of path()
+
 
     @Override
     public boolean isSolved()
@@ -167,28 +252,4 @@ public class BiDirectionalBFSSolver implements MazeSolver
         return cellsExplored;
     } // end of cellsExplored()
 
-    private int columnValue(int row, int column)
-    {
-        if (type == Maze.HEX)
-            column -= ((row + 1) / 2);
-        return column;
-    }
-
-    /**
-     * Set the visited status of a cell.
-     *
-     * @param row:    Row position of the cell
-     * @param column: Column position of the cell
-     */
-    private void setVisited(int row, int column)
-    {
-        visited[row][columnValue(row, column)] = true;
-    }
-
-    private boolean isVisited(int row, int column)
-    {
-        return visited[row][columnValue(row, column)];
-    }
-
 } // end of class BiDirectionalBFSSolver
-
@@ -0,0 +1,83 @@
+package mazeSolver;
+
+import maze.BitFlood;
+import maze.Cell;
+import maze.CellGrid;
+import maze.Maze;
+
+/**
+ * Breadth-first search solver running on a BitFlood, which moves 64 cells at
+ * a time through packed wall masks instead of queueing Cell objects.
+ */
+public class BitBFSSolver implements MazeSolver
+{
+
+    private boolean solved = false;
+    private Path path;
+    private int cellsExplored;
+
+    /**
+     * Algorithm: bit-parallel breadth-first search
+     * ************************************************************************
+     * 1. Pack the open walls of every row into words of 64 cells.
+     * 2. Start with the entrance as the only cell of level 0.
+     * 3. Move every word of the current level through the masks in all
+     *    directions, and through the tunnels of its cells; the cells reached
+     *    that were not reached before form the next level.
+     * 4. Repeat step 3 until the exit is reached or no cell is left.
+     * 5. Walk back from the exit, each time to a neighbour one level closer.
+     * ************************************************************************
+     *
+     * @param maze The maze to solve.
+     */
+    @Override
+    public void solveMaze(Maze maze)
+    {
+        solved = false;
+        path = null;
+
+        BitFlood flood = new BitFlood(maze);
+        cellsExplored = flood.search(maze.entrance, maze.exit, null, true);
+        CellGrid grid = new CellGrid(maze);
+        for (int id = 0; id < grid.numCells; id++)
+        {
+            Cell cell = grid.cell(id);
+            if (flood.isReached(cell.r, cell.c))
+                maze.drawFtPrt(cell);
+        }
+        if (flood.targetDistance() < 0)
+            return;
+
+        solved = true;
+        Cell cells[] = flood.pathTo(maze.exit);
+        int ids[] = new int[cells.length];
+        for (int i = 0; i < cells.length; i++)
+            ids[i] = grid.id(cells[i]);
+        path = new Path(ids);
+    } // end of solveMaze()
+
+
+    @Override
+    public boolean isSolved()
+    {
+        return solved;
+    } // end of isSolved()
+
+
+    /**
+     * Number of cells reached by the search.
+     */
+    @Override
+    public int cellsExplored()
+    {
+        return cellsExplored;
+    } // end of cellsExplored()
+
+
+    @Override
+    public Path path()
+    {
+        return path;
+    } // end of path()
+
+} // end of class BitBFSSolver
@@ -0,0 +1,307 @@
+package mazeSolver;
+
+import maze.Cell;
+import maze.CellGrid;
+import maze.Maze;
+import maze.Workspace;
+
+import java.util.Arrays;
+
+/**
+ * Incremental maze solver (D* Lite) for mazes whose walls are edited between
+ * solves.
+ *
+ * The search runs backwards from the exit and is kept between calls. After
+ * opening or closing walls, report each edited wall with wallChanged() and
+ * call solveMaze() on the same maze again: only the cells whose distance to
+ * the exit is affected by the edits are searched again. The entrance may
+ * also be moved between calls. Solving another maze, the same maze with
+ * another exit, or the same maze initialised again starts a new search.
+ *
+ * Walls edited without being reported leave the kept search out of date;
+ * call reset() to start over in that case. path() throws an
+ * IllegalStateException if it finds the kept distances out of date.
+ */
+public class DStarLiteSolver implements MazeSolver
+{
+
+    // distance of a cell that cannot reach the exit
+    private static final int INFINITY = Integer.MAX_VALUE / 2;
+
+    private Maze maze;
+    private CellGrid grid;
+    private int tunnelEnds[];
+    private Heuristic heuristic;
+    private IntMinHeap open;
+    // g is the distance to the exit found so far, rhs its one-step lookahead
+    private int g[];
+    private int rhs[];
+    private int start;
+    private int goal;
+    // sum of the heuristic distances the start moved by, added to new keys
+    private int km;
+    // cells next to walls reported since the last solve
+    private int changed[] = new int[16];
+    private int numChanged = 0;
+    private boolean solved = false;
+    private Path path;
+    private int cellsExplored;
+    // cells drawn by the last solve
+    private final Workspace drawn = new Workspace();
+
+    /**
+     * Algorithm: D* Lite
+     * ************************************************************************
+     * g(s) is the known distance from cell s to the exit, and rhs(s) is
+     * 1 + the smallest g among the cells s can move to (0 for the exit). A
+     * cell is consistent when g(s) = rhs(s); inconsistent cells wait in a
+     * heap ordered by [min(g, rhs) + h(entrance, s) + km, min(g, rhs)].
+     * First solve:
+     * 1. Set every g and rhs to infinity, rhs(exit) to 0, and put the exit
+     *    in the heap.
+     * Later solves:
+     * 1. If the entrance moved, add the heuristic distance it moved by to km.
+     * 2. Update the rhs of both cells next to every reported wall.
+     * Every solve:
+     * 3. While the smallest key in the heap is smaller than the key of the
+     *    entrance, or the entrance is inconsistent:
+     *      3.1. Take the cell with the smallest key. If its key is out of
+     *           date, put it back with the new key.
+     *      3.2. Else if g > rhs, set g to rhs and update its neighbours.
+     *      3.3. Else set g to infinity and update the cell and its
+     *           neighbours.
+     * 4. Walk from the entrance to the exit, always to the neighbour with the
+     *    smallest g.
+     *
+     * The footprints of the cells taken from the heap and of the solution are
+     * drawn.
+     *
+     * Updating a cell recomputes its rhs and puts it in the heap if and only
+     * if it is inconsistent.
+     * ************************************************************************
+     *
+     * @param maze The maze to solve.
+     */
+    @Override
+    public void solveMaze(Maze maze)
+    {
+        if (this.maze == null || !grid.isViewOf(maze) || grid.id(maze.exit) != goal)
+            initialise(maze);
+        else
+        {
+            int entrance = grid.id(maze.entrance);
+            if (entrance != start)
+            {
+                km += heuristic.estimate(entrance);
+                start = entrance;
+                heuristic = new Heuristic(grid, start, tunnelEnds);
+            }
+            for (int i = 0; i < numChanged; i++)
+                updateCell(changed[i]);
+        }
+        numChanged = 0;
+        cellsExplored = 0;
+        path = null;
+        drawn.begin(grid.numCells);
+
+        computeShortestPath();
+        solved = g[start] < INFINITY;
+        if (solved)
+        {
+            Path found = path();
+            for (int i = 0; i < found.length(); i++)
+                draw(found.get(i));
+        }
+    } // end of solveMaze()
+
+    /**
+     * Draw the footprint of a cell and count it, unless this solve already
+     * did.
+     */
+    private void draw(int cell)
+    {
+        if (drawn.isVisited(cell))
+            return;
+        drawn.visit(cell);
+        cellsExplored++;
+        maze.drawFtPrt(grid.cell(cell));
+    }
+
+    /**
+     * Report that a wall of the maze last solved was opened or closed.
+     *
+     * @param cell A cell next to the wall.
+     * @param dir  Direction of the wall from the cell.
+     */
+    public void wallChanged(Cell cell, int dir)
+    {
+        if (maze == null || cell.neigh[dir] == null)
+            return;
+        if (numChanged + 2 > changed.length)
+            changed = Arrays.copyOf(changed, 2 * changed.length);
+        changed[numChanged++] = grid.id(cell);
+        changed[numChanged++] = grid.id(cell.neigh[dir]);
+    }
+
+    /**
+     * Drop the kept search, so the next solve starts from scratch.
+     */
+    public void reset()
+    {
+        maze = null;
+        numChanged = 0;
+    }
+
+    private void initialise(Maze maze)
+    {
+        this.maze = maze;
+        grid = new CellGrid(maze);
+        tunnelEnds = Heuristic.tunnelEnds(grid);
+        start = grid.id(maze.entrance);
+        goal = grid.id(maze.exit);
+        heuristic = new Heuristic(grid, start, tunnelEnds);
+        km = 0;
+
+        int numCells = grid.numCells;
+        if (open == null || open.capacity() != numCells)
+        {
+            open = new IntMinHeap(numCells);
+            g = new int[numCells];
+            rhs = new int[numCells];
+        }
+        else
+            open.clear();
+        Arrays.fill(g, INFINITY);
+        Arrays.fill(rhs, INFINITY);
+        rhs[goal] = 0;
+        open.push(goal, key(goal));
+    }
+
+    private void computeShortestPath()
+    {
+        while (!open.isEmpty() && (open.key(open.peek()) < key(start) || g[start] != rhs[start]))
+        {
+            int cell = open.peek();
+            long newKey = key(cell);
+            if (open.key(cell) < newKey)
+            {
+                open.push(cell, newKey);
+                continue;
+            }
+
+            open.pop();
+            draw(cell);
+            if (g[cell] > rhs[cell])
+                g[cell] = rhs[cell];
+            else
+            {
+                g[cell] = INFINITY;
+                updateCell(cell);
+            }
+            for (int e = 0; e <= grid.dirs.length; e++)
+            {
+                int next = neighbour(cell, e);
+                if (next >= 0)
+                    updateCell(next);
+            }
+        }
+    }
+
+    /**
+     * Recompute the rhs of a cell and put it in the heap if and only if it is
+     * inconsistent.
+     */
+    private void updateCell(int cell)
+    {
+        if (cell != goal)
+        {
+            int best = INFINITY;
+            for (int e = 0; e <= grid.dirs.length; e++)
+            {
+                int next = neighbour(cell, e);
+                if (next >= 0 && g[next] + 1 < best)
+                    best = g[next] + 1;
+            }
+            rhs[cell] = best;
+        }
+        if (g[cell] != rhs[cell])
+            open.push(cell, key(cell));
+        else
+            open.remove(cell);
+    }
+
+    /**
+     * Heap key of a cell: [min(g, rhs) + h + km, min(g, rhs)], packed so
+     * comparing longs compares the pairs.
+     */
+    private long key(int cell)
+    {
+        int k2 = Math.min(g[cell], rhs[cell]);
+        int k1 = Math.min(k2 + heuristic.estimate(cell) + km, INFINITY);
+        return ((long) k1 << 32) | k2;
+    }
+
+    /**
+     * Cell reached through exit e of a cell: e indexes dirs, and dirs.length
+     * stands for the tunnel.
+     */
+    private int neighbour(int cell, int e)
+    {
+        return e < grid.dirs.length ? grid.move(cell, grid.dirs[e]) : grid.tunnel(cell);
+    }
+
+
+    @Override
+    public boolean isSolved()
+    {
+        return solved;
+    } // end of isSolved()
+
+
+    /**
+     * Number of cells drawn by the last solve: the cells taken from the heap,
+     * each counted once, and the cells of the solution.
+     */
+    @Override
+    public int cellsExplored()
+    {
+        return cellsExplored;
+    } // end of cellsExplored()
+
+
+    /**
+     * Walk down the distances to the exit on the first call, and return the
+     * same path afterwards.
+     *
+     * @throws IllegalStateException If the distances kept do not lead to the
+     *                               exit, because walls were edited without
+     *                               being reported.
+     */
+    @Override
+    public Path path()
+    {
+        if (path == null && solved)
+        {
+            int cells[] = new int[g[start] + 1];
+            cells[0] = start;
+            for (int i = 1; i < cells.length; i++)
+            {
+                int cell = cells[i - 1];
+                int best = -1;
+                for (int e = 0; e <= grid.dirs.length; e++)
+                {
+                    int next = neighbour(cell, e);
+                    if (next >= 0 && (best < 0 || g[next] < g[best]))
+                        best = next;
+                }
+                // on a shortest path every move brings the exit one move closer
+                if (best < 0 || g[best] != g[cell] - 1)
+                    throw new IllegalStateException("The kept search is out of date; call reset().");
+                cells[i] = best;
+            }
+            path = new Path(cells);
+        }
+        return path;
+    } // end of path()
+
+} // end of class DStarLiteSolver
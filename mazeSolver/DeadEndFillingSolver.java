@@ -0,0 +1,260 @@
+package mazeSolver;
+
+import maze.CellGrid;
+import maze.Maze;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Implements the dead-end filling maze solving algorithm, with the filling
+ * done in parallel on a ForkJoinPool.
+ */
+public class DeadEndFillingSolver implements MazeSolver
+{
+
+    // number of cells below which a band of rows is not split further
+    private static final int BAND_CELLS = 1 << 14;
+
+    private final ForkJoinPool pool;
+    private Maze maze;
+    private CellGrid grid;
+    private int entrance;
+    private int exit;
+    private AtomicIntegerArray degree;
+    // dead ends of the maze before any filling, written only by CountDegrees
+    private boolean initialDeadEnd[];
+    private boolean filled[];
+    private boolean solved = false;
+    private Path path;
+    private int cellsExplored;
+
+    /**
+     * Solver filling on the common ForkJoinPool.
+     */
+    public DeadEndFillingSolver()
+    {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool Pool running the filling tasks.
+     */
+    public DeadEndFillingSolver(ForkJoinPool pool)
+    {
+        this.pool = pool;
+    }
+
+    /**
+     * Algorithm: dead-end filling
+     * ************************************************************************
+     * 1. Count, for every cell, the number of open walls and tunnels, i.e.
+     *    its degree.
+     * 2. Every cell other than the entrance and the exit with degree 1 is a
+     *    dead end: fill it, and lower the degree of the cell it opens to.
+     * 3. A cell whose degree drops to 1 has become a dead end, fill it too.
+     * 4. Repeat until no dead end is left. In a perfect maze the cells that
+     *    are not filled are exactly the path from the entrance to the exit.
+     * 5. Walk from the entrance to the exit through the cells left.
+     *
+     * Steps 1 to 4 run on bands of rows in parallel. A band task seeds its
+     * own work stack with the dead ends in its rows, and keeps following the
+     * chain of new dead ends even across other bands; the atomic decrement
+     * that takes a degree to 1 decides which task fills that cell, so every
+     * cell is filled once.
+     * ************************************************************************
+     *
+     * @param maze The maze to solve.
+     */
+    @Override
+    public void solveMaze(Maze maze)
+    {
+        this.maze = maze;
+        grid = new CellGrid(maze);
+        entrance = grid.id(maze.entrance);
+        exit = grid.id(maze.exit);
+        degree = new AtomicIntegerArray(grid.numCells);
+        initialDeadEnd = new boolean[grid.numCells];
+        filled = new boolean[grid.numCells];
+        solved = false;
+        path = null;
+
+        pool.invoke(new CountDegrees(0, grid.sizeR));
+        pool.invoke(new FillDeadEnds(0, grid.sizeR));
+        cellsExplored = grid.numCells;
+
+        path = walkRemaining();
+        if (path != null)
+        {
+            solved = true;
+            for (int i = 0; i < path.length(); i++)
+                maze.drawFtPrt(path.cell(grid, i));
+        }
+    } // end of solveMaze()
+
+
+    @Override
+    public boolean isSolved()
+    {
+        return solved;
+    } // end of isSolved()
+
+
+    /**
+     * Every cell is examined when the degrees are counted.
+     */
+    @Override
+    public int cellsExplored()
+    {
+        return cellsExplored;
+    } // end of cellsExplored()
+
+
+    @Override
+    public Path path()
+    {
+        return path;
+    } // end of path()
+
+    /**
+     * Breadth-first search from the entrance over the cells not filled. In a
+     * perfect maze this simply walks the single corridor that is left; the
+     * search also copes with the loops that filling leaves in other mazes.
+     *
+     * @return Shortest path through the cells left, or null if the exit
+     * cannot be reached.
+     */
+    private Path walkRemaining()
+    {
+        int parent[] = new int[grid.numCells];
+        int queue[] = new int[grid.numCells];
+        Arrays.fill(parent, -1);
+
+        int head = 0, tail = 0;
+        queue[tail++] = entrance;
+        parent[entrance] = entrance;
+        while (head < tail && parent[exit] < 0)
+        {
+            int cell = queue[head++];
+            for (int i = 0; i <= grid.dirs.length; i++)
+            {
+                int next = (i < grid.dirs.length) ? grid.move(cell, grid.dirs[i]) : grid.tunnel(cell);
+                if (next >= 0 && !filled[next] && parent[next] < 0)
+                {
+                    parent[next] = cell;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        if (parent[exit] < 0)
+            return null;
+
+        int length = 1;
+        for (int c = exit; c != entrance; c = parent[c])
+            length++;
+        int cells[] = new int[length];
+        for (int i = length - 1, c = exit; i >= 0; i--, c = parent[c])
+            cells[i] = c;
+        return new Path(cells);
+    }
+
+    /**
+     * Task computing the degree of every cell in rows [from, to).
+     */
+    private class CountDegrees extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        CountDegrees(int from, int to)
+        {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if ((to - from) * grid.sizeC > BAND_CELLS && to - from > 1)
+            {
+                int mid = (from + to) >>> 1;
+                invokeAll(new CountDegrees(from, mid), new CountDegrees(mid, to));
+                return;
+            }
+
+            for (int cell = from * grid.sizeC; cell < to * grid.sizeC; cell++)
+            {
+                int d = grid.tunnel(cell) >= 0 ? 1 : 0;
+                for (int dir : grid.dirs)
+                    if (grid.move(cell, dir) >= 0)
+                        d++;
+                degree.set(cell, d);
+                initialDeadEnd[cell] = (d == 1 && cell != entrance && cell != exit);
+            }
+        }
+    }
+
+    /**
+     * Task filling the dead ends found in rows [from, to) and every dead end
+     * their filling creates.
+     * The seeds come from initialDeadEnd rather than from the live degrees,
+     * which other tasks may already have lowered to 1 and claimed.
+     */
+    private class FillDeadEnds extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private int stack[] = new int[64];
+        private int top = 0;
+
+        FillDeadEnds(int from, int to)
+        {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if ((to - from) * grid.sizeC > BAND_CELLS && to - from > 1)
+            {
+                int mid = (from + to) >>> 1;
+                invokeAll(new FillDeadEnds(from, mid), new FillDeadEnds(mid, to));
+                return;
+            }
+
+            for (int cell = from * grid.sizeC; cell < to * grid.sizeC; cell++)
+            {
+                if (initialDeadEnd[cell])
+                    push(cell);
+            }
+
+            while (top > 0)
+            {
+                int cell = stack[--top];
+                filled[cell] = true;
+                for (int i = 0; i <= grid.dirs.length; i++)
+                {
+                    int next = (i < grid.dirs.length) ? grid.move(cell, grid.dirs[i]) : grid.tunnel(cell);
+                    if (next >= 0 && degree.decrementAndGet(next) == 1
+                            && next != entrance && next != exit)
+                        push(next);
+                }
+            }
+        }
+
+        private void push(int cell)
+        {
+            if (top == stack.length)
+                stack = Arrays.copyOf(stack, 2 * top);
+            stack[top++] = cell;
+        }
+    }
+
+} // end of class DeadEndFillingSolver
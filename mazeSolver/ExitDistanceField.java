@@ -0,0 +1,416 @@
+package mazeSolver;
+
+import maze.CellGrid;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Number of moves from every cell of a maze to its exit, over open walls and
+ * tunnels, for routing any number of agents to the same exit.
+ *
+ * Once the field is computed, an agent standing on a cell takes its next step
+ * with next(), which looks at the neighbours of the cell only, so routing
+ * costs nothing more per agent than its own moves.
+ *
+ * compute() fills the field with a single breadth-first search from the
+ * exit. recompute() does the same work in parallel on row bands, and is meant
+ * for refreshing the field after walls are changed.
+ */
+public class ExitDistanceField
+{
+
+    // number of cells below which a band of rows is not split further
+    private static final int BAND_CELLS = 1 << 14;
+
+    // distance of a cell that cannot reach the exit
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    private final CellGrid grid;
+    private final ForkJoinPool pool;
+    private final int distance[];
+    private final int bandRows;
+    private final Band bands[];
+    private int exit;
+    private int rounds;
+
+    /**
+     * Compute the field of a maze, using the common ForkJoinPool for later
+     * calls to recompute().
+     *
+     * @param grid The maze.
+     */
+    public ExitDistanceField(CellGrid grid)
+    {
+        this(grid, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Compute the field of a maze.
+     *
+     * @param grid The maze.
+     * @param pool Pool running recompute().
+     */
+    public ExitDistanceField(CellGrid grid, ForkJoinPool pool)
+    {
+        this.grid = grid;
+        this.pool = pool;
+        distance = new int[grid.numCells];
+        bandRows = Math.max(1, BAND_CELLS / Math.max(1, grid.sizeC));
+        bands = new Band[(grid.sizeR + bandRows - 1) / bandRows];
+        compute();
+    }
+
+    /**
+     * @param cell Id of a cell.
+     * @return Number of moves from the cell to the exit, or -1 if the exit
+     * cannot be reached from it.
+     */
+    public int distance(int cell)
+    {
+        return distance[cell] == UNREACHED ? -1 : distance[cell];
+    }
+
+    /**
+     * @param cell Id of a cell.
+     * @return Id of a neighbour of the cell, possibly through its tunnel, that
+     * is one move closer to the exit, or -1 if the cell is the exit or cannot
+     * reach it.
+     */
+    public int next(int cell)
+    {
+        int d = distance[cell];
+        if (d == 0 || d == UNREACHED)
+            return -1;
+        for (int dir : grid.dirs)
+        {
+            int neighbour = grid.move(cell, dir);
+            if (neighbour >= 0 && distance[neighbour] == d - 1)
+                return neighbour;
+        }
+        return grid.tunnel(cell);
+    }
+
+    /**
+     * @return Number of rounds of band searches run by the last recompute().
+     */
+    public int rounds()
+    {
+        return rounds;
+    }
+
+    /**
+     * Fill the field with one breadth-first search from the exit.
+     */
+    public void compute()
+    {
+        exit = grid.exit();
+        Arrays.fill(distance, UNREACHED);
+        int queue[] = new int[grid.numCells];
+        int head = 0, tail = 0;
+        queue[tail++] = exit;
+        distance[exit] = 0;
+        while (head < tail)
+        {
+            int cell = queue[head++];
+            for (int e = 0; e <= grid.dirs.length; e++)
+            {
+                int next = e < grid.dirs.length ? grid.move(cell, grid.dirs[e]) : grid.tunnel(cell);
+                if (next >= 0 && distance[next] == UNREACHED)
+                {
+                    distance[next] = distance[cell] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * Algorithm: banded parallel breadth-first search
+     * ************************************************************************
+     * The rows are cut into bands, and every band only ever writes the
+     * distances of its own cells.
+     * 1. Set every distance to infinity, and seed the band of the exit with
+     *    the exit at distance 0.
+     * 2. In parallel, every band runs a breadth-first search that stays in
+     *    the band, starting from its seeds in order of distance.
+     * 3. In parallel, every band looks at the moves and tunnels leaving it:
+     *    a cell of the band whose neighbour in another band is at distance d
+     *    while its own distance is more than d + 1 becomes a seed with
+     *    distance d + 1.
+     * 4. Repeat from step 2 until no band has a seed.
+     *
+     * Distances only go down and the searches stop at the band edges, so the
+     * result is the same field as compute(). The number of rounds grows with
+     * the number of times a shortest path crosses from one band into another,
+     * and only bands next to a band that changed are looked at in step 3.
+     * ************************************************************************
+     */
+    public void recompute()
+    {
+        exit = grid.exit();
+        for (int b = 0; b < bands.length; b++)
+            if (bands[b] == null)
+                bands[b] = new Band(b);
+        pool.invoke(new Reset(0, bands.length));
+
+        Band first = bands[grid.row(exit) / bandRows];
+        first.seeds[0] = (long) 0 << 32 | exit;
+        first.numSeeds = 1;
+        rounds = 0;
+        while (true)
+        {
+            rounds++;
+            pool.invoke(new Search(0, bands.length));
+
+            // only bands next to a band that changed, or joined to one by a
+            // tunnel, can find new seeds
+            for (Band band : bands)
+                band.dirty = false;
+            for (int b = 0; b < bands.length; b++)
+            {
+                if (!bands[b].changed)
+                    continue;
+                if (b > 0)
+                    bands[b - 1].dirty = true;
+                if (b + 1 < bands.length)
+                    bands[b + 1].dirty = true;
+                for (int other : bands[b].tunnelBands)
+                    bands[other].dirty = true;
+            }
+            pool.invoke(new FindSeeds(0, bands.length));
+            int numSeeds = 0;
+            for (Band band : bands)
+                numSeeds += band.numSeeds;
+            if (numSeeds == 0)
+                break;
+        }
+    }
+
+    /**
+     * Rows [firstRow, endRow) of the maze with the arrays of their search.
+     */
+    private class Band
+    {
+        final int firstRow;
+        final int endRow;
+        final int queue[];
+        // ids of the cells of the band with a tunnel
+        final int tunnelEnds[];
+        // other bands holding the far end of one of these tunnels
+        final int tunnelBands[];
+        // set by search() if a distance of the band went down
+        boolean changed = false;
+        // set if findSeeds() has to look at the band
+        boolean dirty = false;
+        // seeds as (distance << 32 | cell), sorted before each search
+        long seeds[] = new long[16];
+        int numSeeds = 0;
+
+        Band(int index)
+        {
+            firstRow = index * bandRows;
+            endRow = Math.min(grid.sizeR, firstRow + bandRows);
+            queue = new int[(endRow - firstRow) * grid.sizeC];
+            int count = 0;
+            for (int cell = firstRow * grid.sizeC; cell < endRow * grid.sizeC; cell++)
+                if (grid.tunnel(cell) >= 0)
+                    count++;
+            tunnelEnds = new int[count];
+            for (int cell = firstRow * grid.sizeC, i = 0; i < count; cell++)
+                if (grid.tunnel(cell) >= 0)
+                    tunnelEnds[i++] = cell;
+            int found[] = new int[count];
+            int numFound = 0;
+            for (int cell : tunnelEnds)
+            {
+                int other = grid.row(grid.tunnel(cell)) / bandRows;
+                boolean seen = other == index;
+                for (int i = 0; i < numFound && !seen; i++)
+                    seen = found[i] == other;
+                if (!seen)
+                    found[numFound++] = other;
+            }
+            tunnelBands = Arrays.copyOf(found, numFound);
+        }
+
+        boolean contains(int cell)
+        {
+            int r = grid.row(cell);
+            return r >= firstRow && r < endRow;
+        }
+
+        /**
+         * Search the band from its seeds, taking seeds and queued cells in
+         * order of distance.
+         */
+        void search()
+        {
+            Arrays.sort(seeds, 0, numSeeds);
+            changed = false;
+            int head = 0, tail = 0;
+            int s = 0;
+            while (head < tail || s < numSeeds)
+            {
+                int cell;
+                if (s < numSeeds && (head == tail || (int) (seeds[s] >>> 32) <= distance[queue[head]]))
+                {
+                    cell = (int) seeds[s];
+                    int d = (int) (seeds[s++] >>> 32);
+                    if (d >= distance[cell])
+                        continue;
+                    distance[cell] = d;
+                    changed = true;
+                }
+                else
+                    cell = queue[head++];
+
+                for (int e = 0; e <= grid.dirs.length; e++)
+                {
+                    int next = e < grid.dirs.length ? grid.move(cell, grid.dirs[e]) : grid.tunnel(cell);
+                    if (next >= 0 && contains(next) && distance[cell] + 1 < distance[next])
+                    {
+                        distance[next] = distance[cell] + 1;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+            numSeeds = 0;
+        }
+
+        /**
+         * Collect the cells of the band that get closer to the exit through a
+         * neighbour in another band.
+         */
+        void findSeeds()
+        {
+            numSeeds = 0;
+            int sizeC = grid.sizeC;
+            for (int cell = firstRow * sizeC; cell < (firstRow + 1) * sizeC; cell++)
+                seedFromMoves(cell);
+            if (endRow - 1 > firstRow)
+                for (int cell = (endRow - 1) * sizeC; cell < endRow * sizeC; cell++)
+                    seedFromMoves(cell);
+            for (int cell : tunnelEnds)
+            {
+                int other = grid.tunnel(cell);
+                if (!contains(other))
+                    seed(cell, other);
+            }
+        }
+
+        private void seedFromMoves(int cell)
+        {
+            for (int dir : grid.dirs)
+            {
+                int next = grid.move(cell, dir);
+                if (next >= 0 && !contains(next))
+                    seed(cell, next);
+            }
+        }
+
+        private void seed(int cell, int from)
+        {
+            int d = distance[from];
+            if (d == UNREACHED || d + 1 >= distance[cell])
+                return;
+            if (numSeeds == seeds.length)
+                seeds = Arrays.copyOf(seeds, 2 * seeds.length);
+            seeds[numSeeds++] = (long) (d + 1) << 32 | cell;
+        }
+    }
+
+    /**
+     * Task setting the distances of bands [from, to) to infinity.
+     */
+    private class Reset extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        Reset(int from, int to)
+        {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from > 1)
+            {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Reset(from, mid), new Reset(mid, to));
+                return;
+            }
+            Arrays.fill(distance, bands[from].firstRow * grid.sizeC, bands[from].endRow * grid.sizeC, UNREACHED);
+            bands[from].numSeeds = 0;
+        }
+    }
+
+    /**
+     * Task searching bands [from, to).
+     */
+    private class Search extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        Search(int from, int to)
+        {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from > 1)
+            {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Search(from, mid), new Search(mid, to));
+                return;
+            }
+            if (bands[from].numSeeds > 0)
+                bands[from].search();
+            else
+                bands[from].changed = false;
+        }
+    }
+
+    /**
+     * Task collecting the seeds of bands [from, to).
+     */
+    private class FindSeeds extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        FindSeeds(int from, int to)
+        {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from > 1)
+            {
+                int mid = (from + to) >>> 1;
+                invokeAll(new FindSeeds(from, mid), new FindSeeds(mid, to));
+                return;
+            }
+            if (bands[from].dirty)
+                bands[from].findSeeds();
+        }
+    }
+
+} // end of class ExitDistanceField
@@ -0,0 +1,152 @@
+package mazeSolver;
+
+import maze.Cell;
+import maze.CellGrid;
+import maze.Maze;
+
+/**
+ * Admissible and consistent lower bound on the number of steps from a cell to
+ * a fixed goal cell, where moving to a neighbour or through a tunnel is one step.
+ *
+ * NORMAL mazes use the Manhattan distance, HEX mazes the cube-coordinate
+ * distance. For TUNNEL mazes a path either walks to the goal (at least the
+ * Manhattan distance), or walks to some tunnel end, takes at least one tunnel
+ * and then walks from some tunnel end to the goal, so the bound is
+ * min(d(cell, goal), min_t d(cell, t) + 1 + min_t d(t, goal)).
+ */
+class Heuristic
+{
+    private final int type;
+    private final int sizeC;
+    private final int goalR;
+    private final int goalC;
+
+    // rows and map columns of the tunnel ends, empty if the maze has no tunnel
+    private final int tunnelR[];
+    private final int tunnelC[];
+    // 1 + smallest distance from any tunnel end to the goal
+    private final int tunnelToGoal;
+
+    // maze the bound was built for: its map is replaced by initMaze()
+    private final Maze maze;
+    private final Cell map[][];
+    private final int goal;
+
+    /**
+     * @param grid The maze being solved.
+     * @param goal Id of the goal cell.
+     */
+    Heuristic(CellGrid grid, int goal)
+    {
+        this(grid, goal, tunnelEnds(grid));
+    }
+
+    /**
+     * Bound for a maze whose tunnel ends are already known, which saves a scan
+     * of the whole maze when many goals are used.
+     *
+     * @param grid       The maze being solved.
+     * @param goal       Id of the goal cell.
+     * @param tunnelEnds Ids of the cells with a tunnel, see tunnelEnds().
+     */
+    Heuristic(CellGrid grid, int goal, int tunnelEnds[])
+    {
+        type = grid.type;
+        sizeC = grid.sizeC;
+        maze = grid.maze;
+        map = grid.maze.map;
+        this.goal = goal;
+        goalR = grid.row(goal);
+        goalC = grid.col(goal);
+        tunnelR = new int[tunnelEnds.length];
+        tunnelC = new int[tunnelEnds.length];
+
+        int best = Integer.MAX_VALUE - 1;
+        for (int i = 0; i < tunnelEnds.length; i++)
+        {
+            tunnelR[i] = grid.row(tunnelEnds[i]);
+            tunnelC[i] = grid.col(tunnelEnds[i]);
+            best = Math.min(best, distance(tunnelR[i], tunnelC[i], goalR, goalC));
+        }
+        tunnelToGoal = best + 1;
+    }
+
+    /**
+     * Whether this bound still holds for a goal of a maze, so that a solver
+     * may keep it from one solve to the next. A maze initialised again gets a
+     * new map, and maybe new tunnels, so it needs a new bound.
+     *
+     * @param grid The maze being solved.
+     * @param goal Id of the goal cell.
+     * @return True if the bound was built for this goal of this maze as it is.
+     */
+    boolean isFor(CellGrid grid, int goal)
+    {
+        return grid.maze == maze && grid.maze.map == map && grid.type == type
+                && grid.sizeC == sizeC && goal == this.goal;
+    }
+
+    /**
+     * @param grid The maze being solved.
+     * @return Ids of the cells with a tunnel, empty unless it is a TUNNEL maze.
+     */
+    static int[] tunnelEnds(CellGrid grid)
+    {
+        if (grid.type != Maze.TUNNEL)
+            return new int[0];
+
+        int count = 0;
+        for (int id = 0; id < grid.numCells; id++)
+            if (grid.tunnel(id) >= 0)
+                count++;
+        int ends[] = new int[count];
+        for (int id = 0, i = 0; i < count; id++)
+            if (grid.tunnel(id) >= 0)
+                ends[i++] = id;
+        return ends;
+    }
+
+    /**
+     * @param id Cell id.
+     * @return Lower bound on the number of steps from the cell to the goal.
+     */
+    int estimate(int id)
+    {
+        int r = id / sizeC;
+        int c = id - r * sizeC + (type == Maze.HEX ? (r + 1) / 2 : 0);
+        return estimate(r, c);
+    }
+
+    /**
+     * @param r Row of the cell.
+     * @param c Column of the cell in maze.map.
+     * @return Lower bound on the number of steps from the cell to the goal.
+     */
+    int estimate(int r, int c)
+    {
+        int h = distance(r, c, goalR, goalC);
+        if (tunnelR.length == 0 || h <= tunnelToGoal)
+            return h;
+
+        for (int i = 0; i < tunnelR.length; i++)
+        {
+            int viaTunnel = distance(r, c, tunnelR[i], tunnelC[i]) + tunnelToGoal;
+            if (viaTunnel < h)
+                h = viaTunnel;
+        }
+        return h;
+    }
+
+    /**
+     * Walking distance between two cells ignoring walls and tunnels.
+     */
+    private int distance(int r1, int c1, int r2, int c2)
+    {
+        int dr = r2 - r1;
+        int dc = c2 - c1;
+        if (type == Maze.HEX)
+            return (Math.abs(dr) + Math.abs(dc) + Math.abs(dc - dr)) / 2;
+        return Math.abs(dr) + Math.abs(dc);
+    }
+
+} // end of class Heuristic
@@ -0,0 +1,321 @@
+package mazeSolver;
+
+import maze.CellGrid;
+import maze.Maze;
+import maze.Workspace;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical path finding (HPA*): solves a maze on its TilePortalGraph and
+ * only walks single cells inside the tiles of the entrance and the exit, and
+ * along the route that is found.
+ *
+ * The tile graph is built on the first maze solved and kept for later calls
+ * on the same maze, so the work inside the tiles is paid once. It is built
+ * again when the maze is initialised again; call invalidate() after changing
+ * the walls of a maze that was already solved.
+ */
+public class HierarchicalSolver implements MazeSolver
+{
+
+    /**
+     * Tile size used by the default constructor.
+     */
+    public static final int DEFAULT_TILE_SIZE = 16;
+
+    // parentEdge of a hop from the start cell or to the goal cell, which is
+    // not an edge of the tile graph
+    private static final int IN_TILE = -1;
+
+    private final int tileSize;
+    private TilePortalGraph graph;
+    private TilePortalGraph.LocalSearch search;
+    private IntMinHeap open;
+    private int distance[];
+    private int parentNode[];
+    private int parentEdge[];
+    // cells visited by the searches inside the start and goal tiles, for
+    // solveMaze() to draw
+    private int explored[] = new int[16];
+    private int numExplored;
+    // cells drawn by solveMaze()
+    private final Workspace drawn = new Workspace();
+    private int start;
+    private int goal;
+    private boolean solved = false;
+    private Path path;
+    private int cellsExplored;
+
+    public HierarchicalSolver()
+    {
+        this(DEFAULT_TILE_SIZE);
+    }
+
+    /**
+     * @param tileSize Number of rows and of columns of a tile.
+     */
+    public HierarchicalSolver(int tileSize)
+    {
+        if (tileSize < 1)
+            throw new IllegalArgumentException("Tile size must be at least 1.");
+        this.tileSize = tileSize;
+    }
+
+    /**
+     * Solve the maze and draw the footprints of the cells visited inside the
+     * start and goal tiles and of the solution. The nodes settled in other
+     * tiles are not drawn, since the cells joining them to the entrance are
+     * never walked.
+     *
+     * @param maze The maze to solve.
+     */
+    @Override
+    public void solveMaze(Maze maze)
+    {
+        if (graph == null || !graph.grid.isViewOf(maze))
+            graph = new TilePortalGraph(new CellGrid(maze), tileSize);
+        CellGrid grid = graph.grid;
+        solve(graph, grid.entrance(), grid.exit());
+
+        drawn.begin(grid.numCells);
+        int numDrawn = 0;
+        for (int i = 0; i < numExplored; i++)
+            numDrawn += draw(maze, grid, explored[i]);
+        if (solved)
+        {
+            Path found = path();
+            for (int i = 0; i < found.length(); i++)
+                numDrawn += draw(maze, grid, found.get(i));
+        }
+        cellsExplored = numDrawn;
+    } // end of solveMaze()
+
+    /**
+     * Draw the footprint of a cell unless it is already drawn.
+     *
+     * @return 1 if the cell was drawn, 0 if it already was.
+     */
+    private int draw(Maze maze, CellGrid grid, int cell)
+    {
+        if (drawn.isVisited(cell))
+            return 0;
+        drawn.visit(cell);
+        maze.drawFtPrt(grid.cell(cell));
+        return 1;
+    }
+
+    /**
+     * Forget the tile graph kept from the last maze solved, whose walls were
+     * changed in place.
+     */
+    public void invalidate()
+    {
+        graph = null;
+    }
+
+    /**
+     * Algorithm: HPA*
+     * ************************************************************************
+     * Nodes of the tile graph are numbered 0 to N - 1; the start cell gets
+     * the extra node N and the goal cell the extra node N + 1.
+     * 1. Search the tile of the start cell, and add an edge from N to every
+     *    node of the tile that is reached (and to N + 1 if the goal is in the
+     *    same tile and reached).
+     * 2. Search the tile of the goal cell, and add an edge from every node of
+     *    the tile that is reached to N + 1.
+     * 3. Run A* from N to N + 1 on the tile graph with the added edges, using
+     *    the heuristic distance from the cell of each node to the goal.
+     * 4. Refine the route to cells: a STEP edge is one move, every other edge
+     *    is walked again by a search inside its tile.
+     *
+     * The edges of the graph are lengths of real paths and the heuristic is
+     * consistent, so the route found is a shortest path of the maze.
+     * ************************************************************************
+     *
+     * @param graph Tile graph of the maze, which can be shared by many calls.
+     * @param from  Id of the cell to start from.
+     * @param to    Id of the cell to reach.
+     * @return True if the goal was reached. Otherwise false.
+     */
+    public boolean solve(TilePortalGraph graph, int from, int to)
+    {
+        // the graph given becomes the one kept, for the maze it was built on
+        this.graph = graph;
+        start = from;
+        goal = to;
+        solved = false;
+        path = null;
+        cellsExplored = 0;
+        numExplored = 0;
+
+        int numNodes = graph.numNodes();
+        int startNode = numNodes;
+        int goalNode = numNodes + 1;
+        if (open == null || open.capacity() != numNodes + 2)
+        {
+            open = new IntMinHeap(numNodes + 2);
+            distance = new int[numNodes + 2];
+            parentNode = new int[numNodes + 2];
+            parentEdge = new int[numNodes + 2];
+        }
+        else
+            open.clear();
+        if (search == null || search.graph != graph)
+            search = new TilePortalGraph.LocalSearch(graph);
+        search.cellsVisited = 0;
+        Arrays.fill(distance, Integer.MAX_VALUE);
+
+        // distances inside the tile of the goal, from its nodes to the goal
+        int goalTile = graph.tile(to);
+        int goalFirst = graph.tileStart[goalTile];
+        int toGoal[] = new int[graph.tileStart[goalTile + 1] - goalFirst];
+        search.run(to, -1);
+        recordSearch();
+        for (int i = 0; i < toGoal.length; i++)
+            toGoal[i] = search.distance(graph.nodeCell[goalFirst + i]);
+        int direct = graph.tile(from) == goalTile ? search.distance(from) : -1;
+
+        Heuristic heuristic = new Heuristic(graph.grid, to, graph.tunnelEnds);
+        distance[startNode] = 0;
+        open.push(startNode, key(0, heuristic.estimate(from)));
+        while (!open.isEmpty())
+        {
+            int node = open.pop();
+            cellsExplored++;
+            if (node == goalNode)
+            {
+                solved = true;
+                break;
+            }
+
+            if (node == startNode)
+            {
+                // edges from the start cell to the nodes of its tile
+                int tile = graph.tile(from);
+                search.run(from, -1);
+                recordSearch();
+                for (int next = graph.tileStart[tile]; next < graph.tileStart[tile + 1]; next++)
+                {
+                    int d = search.distance(graph.nodeCell[next]);
+                    if (d >= 0)
+                        relax(node, next, IN_TILE, d, heuristic);
+                }
+                if (direct >= 0)
+                    relax(node, goalNode, IN_TILE, direct, heuristic);
+                continue;
+            }
+
+            for (int edge = graph.edgeStart[node]; edge < graph.edgeStart[node + 1]; edge++)
+                relax(node, graph.edgeTarget[edge], edge, graph.edgeLength[edge], heuristic);
+            if (node >= goalFirst && node < goalFirst + toGoal.length && toGoal[node - goalFirst] >= 0)
+                relax(node, goalNode, IN_TILE, toGoal[node - goalFirst], heuristic);
+        }
+        open.clear();
+        cellsExplored += search.cellsVisited;
+        return solved;
+    }
+
+    /**
+     * Record the cells visited by the last search inside a tile.
+     */
+    private void recordSearch()
+    {
+        if (numExplored + search.numVisited > explored.length)
+            explored = Arrays.copyOf(explored, Math.max(2 * explored.length, numExplored + search.numVisited));
+        for (int i = 0; i < search.numVisited; i++)
+            explored[numExplored++] = search.visited(i);
+    }
+
+    /**
+     * Reach next from node over an edge of the given length, if that is
+     * shorter than the best route known so far.
+     */
+    private void relax(int node, int next, int edge, int length, Heuristic heuristic)
+    {
+        int d = distance[node] + length;
+        if (d >= distance[next])
+            return;
+        distance[next] = d;
+        parentNode[next] = node;
+        parentEdge[next] = edge;
+        int h = next < graph.numNodes() ? heuristic.estimate(graph.nodeCell[next]) : 0;
+        open.push(next, key(d, h));
+    }
+
+    /**
+     * Heap key ordering by f = g + h, ties going to the smaller h.
+     */
+    private static long key(int g, int h)
+    {
+        return ((long) (g + h) << 32) | h;
+    }
+
+    /**
+     * @return Number of moves of the solution, or -1 if the maze is not solved.
+     */
+    public int distance()
+    {
+        return solved ? distance[graph.numNodes() + 1] : -1;
+    }
+
+
+    @Override
+    public boolean isSolved()
+    {
+        return solved;
+    } // end of isSolved()
+
+
+    /**
+     * Number of nodes of the tile graph settled plus number of cells visited
+     * by the searches inside the start and goal tiles, or after solveMaze()
+     * the number of cells it drew.
+     */
+    @Override
+    public int cellsExplored()
+    {
+        return cellsExplored;
+    } // end of cellsExplored()
+
+
+    /**
+     * Refine the solution to cells on the first call, and return the same
+     * path afterwards.
+     */
+    @Override
+    public Path path()
+    {
+        if (path == null && solved)
+        {
+            int numNodes = graph.numNodes();
+            int hops = 0;
+            for (int node = numNodes + 1; node != numNodes; node = parentNode[node])
+                hops++;
+            int route[] = new int[hops + 1];
+            route[0] = numNodes;
+            for (int i = hops, node = numNodes + 1; i > 0; i--, node = parentNode[node])
+                route[i] = node;
+
+            int cells[] = new int[distance[numNodes + 1] + 1];
+            cells[0] = start;
+            int at = 0;
+            for (int i = 1; i <= hops; i++)
+            {
+                int fromCell = route[i - 1] == numNodes ? start : graph.nodeCell[route[i - 1]];
+                int toCell = route[i] == numNodes + 1 ? goal : graph.nodeCell[route[i]];
+                int edge = parentEdge[route[i]];
+                if (edge >= 0 && graph.edgeKind[edge] == TilePortalGraph.STEP)
+                    cells[++at] = toCell;
+                else
+                {
+                    search.run(fromCell, toCell);
+                    at = search.writePath(toCell, cells, at);
+                }
+            }
+            path = new Path(cells);
+        }
+        return path;
+    } // end of path()
+
+} // end of class HierarchicalSolver
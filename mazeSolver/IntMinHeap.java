@@ -0,0 +1,190 @@
+package mazeSolver;
+
+import java.util.Arrays;
+
+/**
+ * Indexed binary min-heap over int cell ids.
+ * Each id is in the heap at most once, and its key can be lowered in place.
+ * All storage is allocated once in the constructor, so pushing and popping
+ * never allocates.
+ */
+class IntMinHeap
+{
+    private final int heap[];
+    private final int pos[];
+    private final long key[];
+    private int size;
+
+    /**
+     * @param capacity Number of distinct ids, i.e. ids are in [0, capacity).
+     */
+    IntMinHeap(int capacity)
+    {
+        heap = new int[capacity];
+        pos = new int[capacity];
+        key = new long[capacity];
+        Arrays.fill(pos, -1);
+        size = 0;
+    }
+
+    /**
+     * @return The number of ids the heap was built for.
+     */
+    int capacity()
+    {
+        return heap.length;
+    }
+
+    boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    boolean contains(int id)
+    {
+        return pos[id] >= 0;
+    }
+
+    /**
+     * @param id An id that is in the heap.
+     * @return The current key of the id.
+     */
+    long key(int id)
+    {
+        return key[id];
+    }
+
+    /**
+     * @return The id with the smallest key, without removing it.
+     */
+    int peek()
+    {
+        return heap[0];
+    }
+
+    /**
+     * Remove every id, in time proportional to the number of ids held.
+     */
+    void clear()
+    {
+        for (int i = 0; i < size; i++)
+            pos[heap[i]] = -1;
+        size = 0;
+    }
+
+    /**
+     * Insert an id, or change its key if it is already in the heap.
+     *
+     * @param id  The id to insert.
+     * @param k   Its key.
+     */
+    void push(int id, long k)
+    {
+        int i = pos[id];
+        if (i < 0)
+        {
+            i = size++;
+            heap[i] = id;
+            pos[id] = i;
+            key[id] = k;
+            siftUp(i);
+        }
+        else if (k < key[id])
+        {
+            key[id] = k;
+            siftUp(i);
+        }
+        else
+        {
+            key[id] = k;
+            siftDown(i);
+        }
+    }
+
+    /**
+     * Remove and return the id with the smallest key.
+     *
+     * @return The removed id.
+     */
+    int pop()
+    {
+        int top = heap[0];
+        removeAt(0);
+        return top;
+    }
+
+    /**
+     * Remove an id if it is in the heap.
+     *
+     * @param id The id to remove.
+     */
+    void remove(int id)
+    {
+        int i = pos[id];
+        if (i >= 0)
+            removeAt(i);
+    }
+
+    private void removeAt(int i)
+    {
+        int id = heap[i];
+        pos[id] = -1;
+        size--;
+        if (i == size)
+            return;
+
+        int last = heap[size];
+        heap[i] = last;
+        pos[last] = i;
+        if (i > 0 && key[last] < key[heap[(i - 1) >> 1]])
+            siftUp(i);
+        else
+            siftDown(i);
+    }
+
+    private void siftUp(int i)
+    {
+        int id = heap[i];
+        long k = key[id];
+        while (i > 0)
+        {
+            int parent = (i - 1) >> 1;
+            int p = heap[parent];
+            if (key[p] <= k)
+                break;
+            heap[i] = p;
+            pos[p] = i;
+            i = parent;
+        }
+        heap[i] = id;
+        pos[id] = i;
+    }
+
+    private void siftDown(int i)
+    {
+        int id = heap[i];
+        long k = key[id];
+        int half = size >> 1;
+        while (i < half)
+        {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && key[heap[right]] < key[heap[child]])
+                child = right;
+            int ch = heap[child];
+            if (k <= key[ch])
+                break;
+            heap[i] = ch;
+            pos[ch] = i;
+            i = child;
+        }
+        heap[i] = id;
+        pos[id] = i;
+    }
+
+} // end of class IntMinHeap
@@ -0,0 +1,237 @@
+package mazeSolver;
+
+import maze.CellAccess;
+
+import java.util.Arrays;
+
+/**
+ * Maze contracted to the cells where a path can branch or end.
+ *
+ * Nodes are the cells whose number of open walls and tunnels is not 2
+ * (junctions and dead ends), the ends of tunnels, the entrance, the exit and
+ * any other cell asked for. Every other cell is a corridor cell, and each
+ * corridor between two nodes becomes one edge whose length is its number of
+ * moves. Only the first cell of a corridor is stored, so the cells of an edge
+ * are walked again, lazily, when a path over it is expanded.
+ *
+ * Edges are stored in compressed rows: the edges leaving node u are the
+ * indices from firstEdge(u) up to, not including, firstEdge(u + 1). Each
+ * corridor gives one edge in each direction.
+ */
+public class JunctionGraph
+{
+
+    private final CellAccess access;
+    private final int dirs[];
+    private final int numNodes;
+    private final int nodeCell[];
+    private final int nodeOf[];
+    private final int edgeStart[];
+    private final int edgeTarget[];
+    private final int edgeLength[];
+    // cell reached by the first move of the edge
+    private final int edgeFirst[];
+
+    /**
+     * Contract a maze.
+     *
+     * @param access     Read-only view of the maze.
+     * @param extraNodes Ids of cells to keep as nodes besides the entrance and exit,
+     *                   e.g. the ends of queries that will be run on the graph.
+     */
+    public JunctionGraph(CellAccess access, int... extraNodes)
+    {
+        this.access = access;
+        this.dirs = CellAccess.directions(access.type());
+        int numCells = access.numCells();
+
+        nodeOf = new int[numCells];
+        Arrays.fill(nodeOf, -1);
+        boolean forced[] = new boolean[numCells];
+        forced[access.entrance()] = true;
+        forced[access.exit()] = true;
+        for (int cell : extraNodes)
+            forced[cell] = true;
+
+        int count = 0;
+        int numEdges = 0;
+        for (int cell = 0; cell < numCells; cell++)
+        {
+            int degree = degree(cell);
+            if (degree != 2 || forced[cell] || access.tunnel(cell) >= 0)
+            {
+                nodeOf[cell] = count++;
+                numEdges += degree;
+            }
+        }
+        numNodes = count;
+
+        nodeCell = new int[numNodes];
+        edgeStart = new int[numNodes + 1];
+        edgeTarget = new int[numEdges];
+        edgeLength = new int[numEdges];
+        edgeFirst = new int[numEdges];
+
+        int edge = 0;
+        for (int cell = 0; cell < numCells; cell++)
+        {
+            int node = nodeOf[cell];
+            if (node < 0)
+                continue;
+            nodeCell[node] = cell;
+            edgeStart[node] = edge;
+            for (int e = 0; e <= dirs.length; e++)
+            {
+                int first = exitTarget(cell, e);
+                if (first < 0)
+                    continue;
+
+                // walk the corridor to the next node
+                int prev = cell;
+                int current = first;
+                int length = 1;
+                while (nodeOf[current] < 0)
+                {
+                    int next = otherExit(current, prev);
+                    prev = current;
+                    current = next;
+                    length++;
+                }
+                edgeTarget[edge] = nodeOf[current];
+                edgeLength[edge] = length;
+                edgeFirst[edge] = first;
+                edge++;
+            }
+        }
+        edgeStart[numNodes] = edge;
+    }
+
+    /**
+     * @return Number of nodes.
+     */
+    public int numNodes()
+    {
+        return numNodes;
+    }
+
+    /**
+     * @return Number of edges, counting each corridor once in each direction.
+     */
+    public int numEdges()
+    {
+        return edgeTarget.length;
+    }
+
+    /**
+     * @param cell Id of a cell.
+     * @return The node of the cell, or -1 if it is a corridor cell.
+     */
+    public int node(int cell)
+    {
+        return nodeOf[cell];
+    }
+
+    /**
+     * @param node A node.
+     * @return Id of the cell of the node.
+     */
+    public int cell(int node)
+    {
+        return nodeCell[node];
+    }
+
+    /**
+     * @param node A node, or numNodes() to get the end of the last row.
+     * @return Index of the first edge leaving the node.
+     */
+    public int firstEdge(int node)
+    {
+        return edgeStart[node];
+    }
+
+    /**
+     * @param edge Index of an edge.
+     * @return The node the edge leads to.
+     */
+    public int target(int edge)
+    {
+        return edgeTarget[edge];
+    }
+
+    /**
+     * @param edge Index of an edge.
+     * @return Number of moves along the edge.
+     */
+    public int length(int edge)
+    {
+        return edgeLength[edge];
+    }
+
+    /**
+     * Expand a route over the graph to the cells it goes through, walking the
+     * corridors of its edges again.
+     *
+     * @param start Node the route starts from.
+     * @param edges Indices of the edges of the route, in order.
+     * @return The path over the cells, from the cell of the start node to the
+     * cell of the node the last edge leads to.
+     */
+    public Path expand(int start, int edges[])
+    {
+        int length = 1;
+        for (int edge : edges)
+            length += edgeLength[edge];
+
+        int cells[] = new int[length];
+        int i = 0;
+        int prev = nodeCell[start];
+        cells[i++] = prev;
+        for (int edge : edges)
+        {
+            int current = edgeFirst[edge];
+            cells[i++] = current;
+            for (int step = 1; step < edgeLength[edge]; step++)
+            {
+                int next = otherExit(current, prev);
+                prev = current;
+                current = next;
+                cells[i++] = current;
+            }
+            prev = current;
+        }
+        return new Path(cells);
+    }
+
+    /**
+     * Cell reached through exit e of a cell: e indexes dirs, and dirs.length
+     * stands for the tunnel.
+     */
+    private int exitTarget(int cell, int e)
+    {
+        return e < dirs.length ? access.move(cell, dirs[e]) : access.tunnel(cell);
+    }
+
+    private int degree(int cell)
+    {
+        int degree = 0;
+        for (int e = 0; e <= dirs.length; e++)
+            if (exitTarget(cell, e) >= 0)
+                degree++;
+        return degree;
+    }
+
+    /**
+     * @return The open neighbour of a corridor cell other than prev.
+     */
+    private int otherExit(int cell, int prev)
+    {
+        for (int dir : dirs)
+        {
+            int next = access.move(cell, dir);
+            if (next >= 0 && next != prev)
+                return next;
+        }
+        return -1;
+    }
+
+} // end of class JunctionGraph
@@ -0,0 +1,194 @@
+package mazeSolver;
+
+import maze.CellGrid;
+import maze.Maze;
+import maze.Workspace;
+
+import java.util.Arrays;
+
+/**
+ * Solves a maze by Dijkstra's algorithm on its JunctionGraph, so corridor
+ * cells are skipped over a whole corridor at a time.
+ */
+public class JunctionGraphSolver implements MazeSolver
+{
+
+    private JunctionGraph graph;
+    private IntMinHeap open;
+    private int distance[];
+    private int parentEdge[];
+    private int parentNode[];
+    // nodes in the order they were settled, for solveMaze() to draw
+    private int settled[];
+    // cells drawn by solveMaze()
+    private final Workspace drawn = new Workspace();
+    private int start;
+    private int goal;
+    private boolean solved = false;
+    private Path path;
+    private int cellsExplored;
+
+    /**
+     * Contract the maze, solve it on the contracted graph and draw the
+     * footprints of the cells explored: the cells of the settled nodes and
+     * of the corridors leaving them, which include the solution.
+     *
+     * @param maze The maze to solve.
+     */
+    @Override
+    public void solveMaze(Maze maze)
+    {
+        CellGrid grid = new CellGrid(maze);
+        JunctionGraph contracted = new JunctionGraph(grid);
+        solve(contracted, contracted.node(grid.entrance()), contracted.node(grid.exit()));
+
+        drawn.begin(grid.numCells);
+        int numDrawn = 0;
+        int edge[] = new int[1];
+        for (int i = 0; i < cellsExplored; i++)
+        {
+            int node = settled[i];
+            numDrawn += draw(maze, grid, contracted.cell(node));
+            for (edge[0] = contracted.firstEdge(node); edge[0] < contracted.firstEdge(node + 1); edge[0]++)
+            {
+                Path corridor = contracted.expand(node, edge);
+                for (int j = 1; j < corridor.length(); j++)
+                    numDrawn += draw(maze, grid, corridor.get(j));
+            }
+        }
+        cellsExplored = numDrawn;
+    } // end of solveMaze()
+
+    /**
+     * Draw the footprint of a cell unless it is already drawn.
+     *
+     * @return 1 if the cell was drawn, 0 if it already was.
+     */
+    private int draw(Maze maze, CellGrid grid, int cell)
+    {
+        if (drawn.isVisited(cell))
+            return 0;
+        drawn.visit(cell);
+        maze.drawFtPrt(grid.cell(cell));
+        return 1;
+    }
+
+    /**
+     * Algorithm: Dijkstra on the contracted graph
+     * ************************************************************************
+     * 1. Put the start node in the heap with distance 0.
+     * 2. Remove the node with the smallest distance from the heap.
+     * 3. If it is the goal node
+     *      3.1. STOP
+     * 4. For every edge leaving the node, if the node at its other end can be
+     *    reached in fewer moves through it, record the distance and the edge.
+     * 5. Repeat from step 2 until the heap is empty.
+     *
+     * The cells of the solution are only walked when path() is called.
+     * ************************************************************************
+     *
+     * @param graph Contracted maze, which can be shared by many calls.
+     * @param from  Node to start from.
+     * @param to    Node to reach.
+     * @return True if the goal was reached. Otherwise false.
+     */
+    public boolean solve(JunctionGraph graph, int from, int to)
+    {
+        this.graph = graph;
+        start = from;
+        goal = to;
+        solved = false;
+        path = null;
+        cellsExplored = 0;
+
+        int numNodes = graph.numNodes();
+        if (open == null || open.capacity() != numNodes)
+        {
+            open = new IntMinHeap(numNodes);
+            distance = new int[numNodes];
+            parentEdge = new int[numNodes];
+            parentNode = new int[numNodes];
+            settled = new int[numNodes];
+        }
+        else
+            open.clear();
+        Arrays.fill(distance, Integer.MAX_VALUE);
+
+        distance[from] = 0;
+        parentEdge[from] = -1;
+        open.push(from, 0);
+        while (!open.isEmpty())
+        {
+            int node = open.pop();
+            settled[cellsExplored++] = node;
+            if (node == to)
+            {
+                solved = true;
+                break;
+            }
+
+            for (int edge = graph.firstEdge(node); edge < graph.firstEdge(node + 1); edge++)
+            {
+                int next = graph.target(edge);
+                int d = distance[node] + graph.length(edge);
+                if (d < distance[next])
+                {
+                    distance[next] = d;
+                    parentEdge[next] = edge;
+                    parentNode[next] = node;
+                    open.push(next, d);
+                }
+            }
+        }
+        open.clear();
+        return solved;
+    }
+
+    /**
+     * @return Number of moves of the solution, or -1 if the maze is not solved.
+     */
+    public int distance()
+    {
+        return solved ? distance[goal] : -1;
+    }
+
+
+    @Override
+    public boolean isSolved()
+    {
+        return solved;
+    } // end of isSolved()
+
+
+    /**
+     * Number of nodes of the contracted graph settled by solve(), or after
+     * solveMaze() the number of cells it drew.
+     */
+    @Override
+    public int cellsExplored()
+    {
+        return cellsExplored;
+    } // end of cellsExplored()
+
+
+    /**
+     * Expand the solution to cells on the first call, and return the same
+     * path afterwards.
+     */
+    @Override
+    public Path path()
+    {
+        if (path == null && solved)
+        {
+            int numEdges = 0;
+            for (int node = goal; node != start; node = parentNode[node])
+                numEdges++;
+            int edges[] = new int[numEdges];
+            for (int i = numEdges - 1, node = goal; i >= 0; i--, node = parentNode[node])
+                edges[i] = parentEdge[node];
+            path = graph.expand(start, edges);
+        }
+        return path;
+    } // end of path()
+
+} // end of class JunctionGraphSolver
@@ -0,0 +1,201 @@
+package mazeSolver;
+
+import maze.CellGrid;
+import maze.Maze;
+
+import java.util.Arrays;
+
+/**
+ * Solves mazes by A* with the landmark lower bounds of a LandmarkTable, which
+ * is built once per maze and kept for later queries.
+ *
+ * The bounds hold on mazes with loops as well as perfect ones, and they are
+ * much closer to the real distances than the geometric Heuristic, so repeated
+ * queries on the same maze explore far fewer cells than AStarSolver. The
+ * table is built again when the maze is initialised again; after changing
+ * walls in place, call invalidate().
+ */
+public class LandmarkSolver implements MazeSolver
+{
+
+    private final int numLandmarks;
+    private LandmarkTable table;
+    private CellGrid grid;
+    private IntMinHeap open;
+    private int distance[];
+    private int parent[];
+    private boolean closed[];
+    // cells in the order they were explored, for solveMaze() to draw
+    private int explored[];
+    private int goalDistance[];
+    private int start;
+    private int goal;
+    private boolean solved = false;
+    private Path path;
+    private int cellsExplored;
+
+    public LandmarkSolver()
+    {
+        this(LandmarkTable.DEFAULT_LANDMARKS);
+    }
+
+    /**
+     * @param numLandmarks Number of landmarks of the tables built.
+     */
+    public LandmarkSolver(int numLandmarks)
+    {
+        if (numLandmarks < 1)
+            throw new IllegalArgumentException("There must be at least one landmark.");
+        this.numLandmarks = numLandmarks;
+    }
+
+    /**
+     * Solve the maze and draw the footprints of the explored cells.
+     *
+     * @param maze The maze to solve.
+     */
+    @Override
+    public void solveMaze(Maze maze)
+    {
+        if (table == null || !table.grid.isViewOf(maze))
+            table = new LandmarkTable(new CellGrid(maze), numLandmarks);
+        solve(table, table.grid.entrance(), table.grid.exit());
+        for (int i = 0; i < cellsExplored; i++)
+            maze.drawFtPrt(grid.cell(explored[i]));
+    } // end of solveMaze()
+
+    /**
+     * Forget the landmark table kept from the last maze solved, whose walls
+     * were changed in place.
+     */
+    public void invalidate()
+    {
+        table = null;
+    }
+
+    /**
+     * Algorithm: ALT
+     * ************************************************************************
+     * 1. Copy the distances from every landmark to the goal.
+     * 2. Run A* from the start cell as AStarSolver does, with h(cell) the
+     *    largest |d(L, cell) - d(L, goal)| over the landmarks L.
+     *
+     * Each of these bounds is consistent, and so is their maximum, so every
+     * cell is explored at most once and the path found is a shortest one.
+     * ************************************************************************
+     *
+     * Nothing is drawn, so queries leave the footprints of the maze alone;
+     * solveMaze() draws the cells it explored.
+     *
+     * @param table Landmark table of the maze, which can be shared by many
+     *              calls.
+     * @param from  Id of the cell to start from.
+     * @param to    Id of the cell to reach.
+     * @return True if the goal was reached. Otherwise false.
+     */
+    public boolean solve(LandmarkTable table, int from, int to)
+    {
+        // the table given becomes the one kept, for the maze it was built on
+        this.table = table;
+        grid = table.grid;
+        start = from;
+        goal = to;
+        solved = false;
+        path = null;
+        cellsExplored = 0;
+
+        int numCells = grid.numCells;
+        if (open == null || open.capacity() != numCells)
+        {
+            open = new IntMinHeap(numCells);
+            distance = new int[numCells];
+            parent = new int[numCells];
+            closed = new boolean[numCells];
+            explored = new int[numCells];
+        }
+        else
+        {
+            open.clear();
+            Arrays.fill(closed, false);
+        }
+        Arrays.fill(distance, Integer.MAX_VALUE);
+        if (goalDistance == null || goalDistance.length != table.numLandmarks())
+            goalDistance = new int[table.numLandmarks()];
+        table.distancesTo(to, goalDistance);
+
+        // only TUNNEL mazes have a tunnel exit to look at
+        int numExits = grid.type == Maze.TUNNEL ? grid.dirs.length + 1 : grid.dirs.length;
+        distance[from] = 0;
+        parent[from] = from;
+        open.push(from, key(0, table.lowerBound(from, goalDistance)));
+        while (!open.isEmpty())
+        {
+            int current = open.pop();
+            closed[current] = true;
+            explored[cellsExplored++] = current;
+            if (current == to)
+            {
+                solved = true;
+                break;
+            }
+
+            int step = distance[current] + 1;
+            for (int e = 0; e < numExits; e++)
+            {
+                int next = e < grid.dirs.length ? grid.move(current, grid.dirs[e]) : grid.tunnel(current);
+                if (next < 0 || closed[next] || step >= distance[next])
+                    continue;
+                distance[next] = step;
+                parent[next] = current;
+                open.push(next, key(step, table.lowerBound(next, goalDistance)));
+            }
+        }
+        open.clear();
+        return solved;
+    }
+
+    /**
+     * Heap key ordering cells by f = g + h, then by h.
+     */
+    private static long key(int g, int h)
+    {
+        return ((long) (g + h) << 32) | h;
+    }
+
+    /**
+     * @return Number of moves of the solution, or -1 if the maze is not solved.
+     */
+    public int distance()
+    {
+        return solved ? distance[goal] : -1;
+    }
+
+
+    @Override
+    public boolean isSolved()
+    {
+        return solved;
+    } // end of isSolved()
+
+
+    @Override
+    public int cellsExplored()
+    {
+        return cellsExplored;
+    } // end of cellsExplored()
+
+
+    @Override
+    public Path path()
+    {
+        if (path == null && solved)
+        {
+            int cells[] = new int[distance[goal] + 1];
+            for (int i = cells.length - 1, c = goal; i >= 0; i--, c = parent[c])
+                cells[i] = c;
+            path = new Path(cells);
+        }
+        return path;
+    } // end of path()
+
+} // end of class LandmarkSolver
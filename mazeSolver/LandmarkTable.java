@@ -0,0 +1,192 @@
+package mazeSolver;
+
+import maze.CellGrid;
+import maze.Maze;
+
+import java.util.Arrays;
+
+/**
+ * Distances from a few landmark cells to every cell of a maze, giving lower
+ * bounds on the distance between any two cells (ALT: A*, landmarks and the
+ * triangle inequality).
+ *
+ * For a landmark L and cells a and b, d(a, b) is at least
+ * |d(L, a) - d(L, b)|, and the largest such bound over the landmarks is an
+ * admissible and consistent A* heuristic. Unlike TreePathOracle this works on
+ * any maze, including mazes with loops.
+ *
+ * Landmarks are picked by farthest-point sampling, which spreads them along
+ * the outside of the maze where they bound the most pairs well. The table
+ * takes k breadth-first searches to build and k ints per cell. It describes
+ * the maze as it was when built; build a new one after changing walls.
+ */
+public class LandmarkTable
+{
+
+    /**
+     * Number of landmarks used when none is given.
+     */
+    public static final int DEFAULT_LANDMARKS = 8;
+
+    // distance of a cell that a landmark cannot reach
+    private static final int UNREACHED = -1;
+
+    final CellGrid grid;
+    private final int landmarks[];
+    // distance[i][cell] is the number of moves from landmarks[i] to cell
+    private final int distance[][];
+
+    public LandmarkTable(CellGrid grid)
+    {
+        this(grid, DEFAULT_LANDMARKS);
+    }
+
+    /**
+     * Algorithm: farthest-point sampling
+     * ************************************************************************
+     * 1. Search breadth-first from the entrance, and take the farthest cell
+     *    reached as the first landmark.
+     * 2. Search breadth-first from the last landmark and keep its distances.
+     * 3. Take as next landmark the cell whose distance to the nearest
+     *    landmark is largest, a cell no landmark reaches counting as
+     *    infinitely far.
+     * 4. Repeat from step 2 until there are k landmarks.
+     * ************************************************************************
+     *
+     * @param grid The maze.
+     * @param k    Number of landmarks, at least 1.
+     */
+    public LandmarkTable(CellGrid grid, int k)
+    {
+        if (k < 1)
+            throw new IllegalArgumentException("There must be at least one landmark.");
+        this.grid = grid;
+        int numCells = grid.numCells;
+        k = Math.min(k, numCells);
+        landmarks = new int[k];
+        distance = new int[k][];
+
+        int queue[] = new int[numCells];
+        int nearest[] = new int[numCells];
+        Arrays.fill(nearest, Integer.MAX_VALUE);
+
+        int first[] = new int[numCells];
+        landmarks[0] = search(grid.entrance(), first, queue);
+        for (int i = 0; i < k; i++)
+        {
+            distance[i] = i == 0 ? first : new int[numCells];
+            search(landmarks[i], distance[i], queue);
+            if (i + 1 == k)
+                break;
+
+            int next = 0;
+            for (int cell = 0; cell < numCells; cell++)
+            {
+                int d = distance[i][cell];
+                if (d != UNREACHED && d < nearest[cell])
+                    nearest[cell] = d;
+                if (nearest[cell] > nearest[next])
+                    next = cell;
+            }
+            landmarks[i + 1] = next;
+        }
+    }
+
+    /**
+     * Fill dist with the distances from a cell.
+     *
+     * @return The last cell reached, which is one of the farthest.
+     */
+    private int search(int source, int dist[], int queue[])
+    {
+        int dirs[] = grid.dirs;
+        // only TUNNEL mazes have a tunnel exit to look at
+        int numExits = grid.type == Maze.TUNNEL ? dirs.length + 1 : dirs.length;
+        Arrays.fill(dist, UNREACHED);
+        int head = 0, tail = 0;
+        queue[tail++] = source;
+        dist[source] = 0;
+        while (head < tail)
+        {
+            int cell = queue[head++];
+            for (int e = 0; e < numExits; e++)
+            {
+                int next = e < dirs.length ? grid.move(cell, dirs[e]) : grid.tunnel(cell);
+                if (next >= 0 && dist[next] == UNREACHED)
+                {
+                    dist[next] = dist[cell] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return queue[tail - 1];
+    }
+
+    /**
+     * @return Number of landmarks.
+     */
+    public int numLandmarks()
+    {
+        return landmarks.length;
+    }
+
+    /**
+     * @param i Index of a landmark.
+     * @return Id of the landmark cell.
+     */
+    public int landmark(int i)
+    {
+        return landmarks[i];
+    }
+
+    /**
+     * Copy the distances from every landmark to a cell, for use with
+     * lowerBound(int, int[]) when many bounds to the same cell are needed.
+     *
+     * @param cell Id of a cell.
+     * @param into Array of at least numLandmarks() ints.
+     */
+    public void distancesTo(int cell, int into[])
+    {
+        for (int i = 0; i < landmarks.length; i++)
+            into[i] = distance[i][cell];
+    }
+
+    /**
+     * @param from Id of a cell.
+     * @param to   Id of a cell.
+     * @return Lower bound on the number of moves from one cell to the other.
+     */
+    public int lowerBound(int from, int to)
+    {
+        int bound = 0;
+        for (int i = 0; i < landmarks.length; i++)
+            bound = Math.max(bound, bound(distance[i][from], distance[i][to]));
+        return bound;
+    }
+
+    /**
+     * @param from       Id of a cell.
+     * @param toDistance Distances from the landmarks to the other cell, as
+     *                   filled by distancesTo().
+     * @return Lower bound on the number of moves from one cell to the other.
+     */
+    public int lowerBound(int from, int toDistance[])
+    {
+        int bound = 0;
+        for (int i = 0; i < landmarks.length; i++)
+            bound = Math.max(bound, bound(distance[i][from], toDistance[i]));
+        return bound;
+    }
+
+    /**
+     * Bound from one landmark, which says nothing if it misses either cell.
+     */
+    private static int bound(int a, int b)
+    {
+        if (a == UNREACHED || b == UNREACHED)
+            return 0;
+        return Math.abs(a - b);
+    }
+
+} // end of class LandmarkTable
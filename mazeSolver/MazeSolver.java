@@ -31,4 +31,14 @@ public interface MazeSolver
 	 * It is not required to be accurate and no marks are given (or lost) on it. 
 	 */
 	public abstract int cellsExplored();
+
+
+	/**
+	 * Use after solveMaze(maze), to get the solution that was found.
+	 * @return The path from the entrance to the exit, or null if the maze is not solved
+	 * or the solver does not record its solution.
+	 */
+	public default Path path() {
+		return null;
+	}
 } // end of interface mazeGenerator
@@ -0,0 +1,293 @@
+package mazeSolver;
+
+import maze.CellGrid;
+import maze.Maze;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Implements a level-synchronous parallel BFS maze solving algorithm.
+ */
+public class ParallelBFSSolver implements MazeSolver
+{
+
+    // number of frontier cells, or of cells in a bottom-up sweep, per task
+    private static final int CHUNK = 1 << 12;
+    // the sweep goes bottom-up once the frontier holds more than
+    // numCells / BOTTOM_UP_DIVISOR cells
+    private static final int BOTTOM_UP_DIVISOR = 16;
+
+    private final ForkJoinPool pool;
+    private Maze maze;
+    private CellGrid grid;
+    private AtomicLongArray visited;
+    private int level[];
+    private int parent[];
+    private int frontier[];
+    private int frontierSize;
+    private int next[];
+    private final AtomicInteger nextSize = new AtomicInteger();
+    private int depth;
+    private boolean solved = false;
+    private Path path;
+    private int cellsExplored;
+
+    /**
+     * Solver running on the common ForkJoinPool.
+     */
+    public ParallelBFSSolver()
+    {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool Pool running the level sweeps.
+     */
+    public ParallelBFSSolver(ForkJoinPool pool)
+    {
+        this.pool = pool;
+    }
+
+    /**
+     * Algorithm: level-synchronous BFS
+     * ************************************************************************
+     * 1. The frontier holds the entrance, at level 0.
+     * 2. Build the next level in parallel, either
+     *      2.1. top-down: workers split the frontier, and every unvisited
+     *           cell reachable from it is claimed by the worker whose atomic
+     *           set of its visited bit succeeds, or
+     *      2.2. bottom-up: workers split all cells, and every unvisited cell
+     *           looks for a neighbour on the current level, stopping at the
+     *           first one found. This is used while the frontier is large,
+     *           where most top-down claims would fail.
+     * 3. Stop when the exit has been reached or the next level is empty,
+     *    otherwise the next level becomes the frontier; repeat from step 2.
+     * 4. Follow the parent pointers from the exit to get the path.
+     *
+     * Levels that fit in a single task are expanded on the calling thread.
+     * Footprints are drawn once the search is over, on the calling thread.
+     * ************************************************************************
+     *
+     * @param maze The maze to solve.
+     */
+    @Override
+    public void solveMaze(Maze maze)
+    {
+        this.maze = maze;
+        grid = new CellGrid(maze);
+        int numCells = grid.numCells;
+        visited = new AtomicLongArray((numCells + 63) >>> 6);
+        level = new int[numCells];
+        parent = new int[numCells];
+        frontier = new int[numCells];
+        next = new int[numCells];
+        Arrays.fill(level, -1);
+        solved = false;
+        path = null;
+
+        int entrance = grid.id(maze.entrance);
+        int exit = grid.id(maze.exit);
+        claim(entrance);
+        level[entrance] = 0;
+        parent[entrance] = entrance;
+        frontier[0] = entrance;
+        frontierSize = 1;
+        cellsExplored = 1;
+        depth = 0;
+
+        while (level[exit] < 0 && frontierSize > 0)
+        {
+            nextSize.set(0);
+            if (frontierSize > numCells / BOTTOM_UP_DIVISOR)
+                pool.invoke(new BottomUp(0, numCells));
+            else if (frontierSize > CHUNK)
+                pool.invoke(new TopDown(0, frontierSize));
+            else
+                new TopDown(0, frontierSize).compute(); // too small to hand to the pool
+
+            int swap[] = frontier;
+            frontier = next;
+            next = swap;
+            frontierSize = nextSize.get();
+            cellsExplored += frontierSize;
+            depth++;
+        }
+
+        if (level[exit] >= 0)
+        {
+            solved = true;
+            int cells[] = new int[level[exit] + 1];
+            for (int i = cells.length - 1, c = exit; i >= 0; i--, c = parent[c])
+                cells[i] = c;
+            path = new Path(cells);
+        }
+
+        for (int cell = 0; cell < numCells; cell++)
+            if (level[cell] >= 0)
+                maze.drawFtPrt(grid.cell(cell));
+    } // end of solveMaze()
+
+
+    @Override
+    public boolean isSolved()
+    {
+        return solved;
+    } // end of isSolved()
+
+
+    @Override
+    public int cellsExplored()
+    {
+        return cellsExplored;
+    } // end of cellsExplored()
+
+
+    @Override
+    public Path path()
+    {
+        return path;
+    } // end of path()
+
+    /**
+     * Atomically set the visited bit of a cell.
+     *
+     * @param cell: Id of the cell.
+     * @return : True if this call set the bit, false if it was already set.
+     */
+    private boolean claim(int cell)
+    {
+        int word = cell >>> 6;
+        long bit = 1L << cell;
+        long old;
+        do
+        {
+            old = visited.get(word);
+            if ((old & bit) != 0)
+                return false;
+        } while (!visited.compareAndSet(word, old, old | bit));
+        return true;
+    }
+
+    private boolean isVisited(int cell)
+    {
+        return (visited.get(cell >>> 6) & (1L << cell)) != 0;
+    }
+
+    /**
+     * Copy the cells found by a task to the next frontier.
+     */
+    private void publish(int found[], int count)
+    {
+        if (count > 0)
+            System.arraycopy(found, 0, next, nextSize.getAndAdd(count), count);
+    }
+
+    /**
+     * Cell reached through exit e of a cell: e indexes grid.dirs, and
+     * grid.dirs.length stands for the tunnel.
+     */
+    private int neighbour(int cell, int e)
+    {
+        return e < grid.dirs.length ? grid.move(cell, grid.dirs[e]) : grid.tunnel(cell);
+    }
+
+    /**
+     * Top-down step over frontier[from, to).
+     */
+    private class TopDown extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        TopDown(int from, int to)
+        {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from > CHUNK)
+            {
+                int mid = (from + to) >>> 1;
+                invokeAll(new TopDown(from, mid), new TopDown(mid, to));
+                return;
+            }
+
+            int found[] = new int[(to - from) * (grid.dirs.length + 1)];
+            int count = 0;
+            for (int i = from; i < to; i++)
+            {
+                int cell = frontier[i];
+                for (int e = 0; e <= grid.dirs.length; e++)
+                {
+                    int n = neighbour(cell, e);
+                    if (n >= 0 && !isVisited(n) && claim(n))
+                    {
+                        level[n] = depth + 1;
+                        parent[n] = cell;
+                        found[count++] = n;
+                    }
+                }
+            }
+            publish(found, count);
+        }
+    }
+
+    /**
+     * Bottom-up step over the cells with ids in [from, to).
+     */
+    private class BottomUp extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        BottomUp(int from, int to)
+        {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from > 4 * CHUNK)
+            {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BottomUp(from, mid), new BottomUp(mid, to));
+                return;
+            }
+
+            int found[] = new int[to - from];
+            int count = 0;
+            for (int cell = from; cell < to; cell++)
+            {
+                if (isVisited(cell))
+                    continue;
+                for (int e = 0; e <= grid.dirs.length; e++)
+                {
+                    int n = neighbour(cell, e);
+                    if (n >= 0 && level[n] == depth)
+                    {
+                        claim(cell);
+                        level[cell] = depth + 1;
+                        parent[cell] = n;
+                        found[count++] = cell;
+                        break;
+                    }
+                }
+            }
+            publish(found, count);
+        }
+    }
+
+} // end of class ParallelBFSSolver
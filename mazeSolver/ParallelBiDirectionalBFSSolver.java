@@ -0,0 +1,202 @@
+package mazeSolver;
+
+import maze.CellGrid;
+import maze.Maze;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implements Bi-directional BFS maze solving algorithm with the entrance
+ * side and the exit side searching on two threads at the same time.
+ */
+public class ParallelBiDirectionalBFSSolver implements MazeSolver
+{
+
+    // values of the owner array
+    private static final int FREE = 0;
+    private static final int ENTRANCE_SIDE = 1;
+    private static final int EXIT_SIDE = 2;
+    // value of meeting while the searches have not met
+    private static final long NOT_MET = -1;
+
+    private Maze maze;
+    private CellGrid grid;
+    private AtomicIntegerArray owner;
+    // each parent array is written only by the thread of its side
+    private int entranceParent[];
+    private int exitParent[];
+    // entrance-side cell in the high half, exit-side cell in the low half
+    private final AtomicLong meeting = new AtomicLong(NOT_MET);
+    private volatile boolean stopped;
+    private boolean solved = false;
+    private Path path;
+    private int cellsExplored;
+
+    /**
+     *  1. Give the entrance to the entrance side and the exit to the exit side
+     *     in a shared owner array
+     *  2. Run a BFS from each of them on its own thread. A side takes a cell
+     *     by a compare-and-set of its owner from FREE to the side.
+     *  3. When the compare-and-set fails because the other side owns the cell,
+     *     the two searches have met: record the two cells of the meeting edge,
+     *     unless the other thread already has, and raise the stop flag
+     *  4. Both threads check the stop flag before expanding each cell, and end
+     *     when it is raised or their queue is empty; a side running out of
+     *     cells without meeting the other also raises it, since the exit is
+     *     then unreachable
+     *  5. Join the halves of the path at the meeting edge.
+     *
+     * Each half is a shortest path to its end of the meeting edge. The two
+     * searches do not wait for each other, so on a maze with loops the joined
+     * path can be longer than the shortest one; on a perfect maze it is the
+     * only path. Footprints are drawn once both threads are done.
+     */
+    @Override
+    public void solveMaze(Maze maze)
+    {
+        this.maze = maze;
+        grid = new CellGrid(maze);
+        int numCells = grid.numCells;
+        owner = new AtomicIntegerArray(numCells);
+        entranceParent = new int[numCells];
+        exitParent = new int[numCells];
+        meeting.set(NOT_MET);
+        stopped = false;
+        solved = false;
+        path = null;
+
+        int entrance = grid.id(maze.entrance);
+        int exit = grid.id(maze.exit);
+        if (entrance == exit)
+        {
+            owner.set(entrance, ENTRANCE_SIDE);
+            finish(new Path(new int[] { entrance }));
+            return;
+        }
+        owner.set(entrance, ENTRANCE_SIDE);
+        owner.set(exit, EXIT_SIDE);
+        entranceParent[entrance] = entrance;
+        exitParent[exit] = exit;
+
+        Thread exitSearch = new Thread(() -> search(exit, EXIT_SIDE, exitParent),
+                "ParallelBiDirectionalBFSSolver-exit");
+        exitSearch.start();
+        search(entrance, ENTRANCE_SIDE, entranceParent);
+        try
+        {
+            exitSearch.join();
+        }
+        catch (InterruptedException e)
+        {
+            stopped = true;
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        long met = meeting.get();
+        finish(met == NOT_MET ? null : joinPaths((int) (met >>> 32), (int) met));
+    } // end of solveMaze()
+
+    /**
+     * BFS of one side, run until the searches meet or stop.
+     *
+     * @param start: Id of the cell the side starts from
+     * @param side: ENTRANCE_SIDE or EXIT_SIDE
+     * @param parent: Parent pointers of the side
+     */
+    private void search(int start, int side, int parent[])
+    {
+        int queue[] = new int[grid.numCells];
+        int head = 0, tail = 0;
+        queue[tail++] = start;
+
+        while (head < tail && !stopped)
+        {
+            int cell = queue[head++];
+            for (int e = 0; e <= grid.dirs.length; e++)
+            {
+                int next = e < grid.dirs.length ? grid.move(cell, grid.dirs[e]) : grid.tunnel(cell);
+                if (next < 0)
+                    continue;
+
+                if (owner.compareAndSet(next, FREE, side))
+                {
+                    parent[next] = cell;
+                    queue[tail++] = next;
+                }
+                else if (owner.get(next) != side)
+                {
+                    long met = (side == ENTRANCE_SIDE)
+                            ? ((long) cell << 32) | next
+                            : ((long) next << 32) | cell;
+                    meeting.compareAndSet(NOT_MET, met);
+                    stopped = true;
+                    return;
+                }
+            }
+        }
+        stopped = true;
+    }
+
+    /**
+     * Build the path entrance, ..., entranceSide, exitSide, ..., exit by
+     * following the two sets of parent pointers.
+     */
+    private Path joinPaths(int entranceSide, int exitSide)
+    {
+        int entranceLength = 1;
+        for (int c = entranceSide; entranceParent[c] != c; c = entranceParent[c])
+            entranceLength++;
+        int exitLength = 1;
+        for (int c = exitSide; exitParent[c] != c; c = exitParent[c])
+            exitLength++;
+
+        int cells[] = new int[entranceLength + exitLength];
+        for (int i = entranceLength - 1, c = entranceSide; i >= 0; i--, c = entranceParent[c])
+            cells[i] = c;
+        for (int i = entranceLength, c = exitSide; i < cells.length; i++, c = exitParent[c])
+            cells[i] = c;
+        return new Path(cells);
+    }
+
+    /**
+     * Record the result and draw the footprints of every cell taken by a side.
+     */
+    private void finish(Path found)
+    {
+        path = found;
+        solved = (found != null);
+        cellsExplored = 0;
+        for (int cell = 0; cell < grid.numCells; cell++)
+        {
+            if (owner.get(cell) != FREE)
+            {
+                cellsExplored++;
+                maze.drawFtPrt(grid.cell(cell));
+            }
+        }
+    }
+
+
+    @Override
+    public boolean isSolved()
+    {
+        return solved;
+    } // end of isSolved()
+
+
+    @Override
+    public int cellsExplored()
+    {
+        return cellsExplored;
+    } // end of cellsExplored()
+
+
+    @Override
+    public Path path()
+    {
+        return path;
+    } // end of path()
+
+} // end of class ParallelBiDirectionalBFSSolver
@@ -0,0 +1,110 @@
+package mazeSolver;
+
+import maze.Cell;
+import maze.CellGrid;
+import maze.Maze;
+
+import java.util.Arrays;
+
+/**
+ * Solution of a maze, stored as the ids (see maze.CellGrid) of the cells on
+ * the path in order, from the first cell to the last one, both included.
+ *
+ * Paths are immutable, so they can be kept, compared and shared after the
+ * solver that produced them has moved on to another maze.
+ */
+public final class Path
+{
+    private final int cells[];
+
+    /**
+     * @param cells Ids of the cells on the path, in order. The array is
+     *              owned by the path afterwards and must not be changed.
+     */
+    public Path(int cells[])
+    {
+        this.cells = cells;
+    }
+
+    /**
+     * @return Number of cells on the path, counting both ends, i.e. the
+     * same measure as the path length reported by Maze.validate().
+     */
+    public int length()
+    {
+        return cells.length;
+    }
+
+    /**
+     * @param i Position on the path, 0 being the first cell.
+     * @return Id of the i-th cell.
+     */
+    public int get(int i)
+    {
+        return cells[i];
+    }
+
+    /**
+     * @param grid Id view of the maze the path belongs to.
+     * @param i    Position on the path, 0 being the first cell.
+     * @return The i-th cell.
+     */
+    public Cell cell(CellGrid grid, int i)
+    {
+        return grid.cell(cells[i]);
+    }
+
+    /**
+     * @return Copy of the ids of the cells on the path.
+     */
+    public int[] toArray()
+    {
+        return cells.clone();
+    }
+
+    /**
+     * Check, in time proportional to the length of the path, that it goes
+     * from the entrance to the exit of a maze and that every step is a move
+     * through a missing wall or a tunnel.
+     *
+     * @param maze The maze the path should solve.
+     * @return True if the path is a solution of the maze. Otherwise false.
+     */
+    public boolean isValid(Maze maze)
+    {
+        CellGrid grid = new CellGrid(maze);
+        if (cells.length == 0 || cells[0] != grid.id(maze.entrance)
+                || cells[cells.length - 1] != grid.id(maze.exit))
+            return false;
+
+        for (int i = 1; i < cells.length; i++)
+        {
+            if (cells[i] < 0 || cells[i] >= grid.numCells || !isStep(grid, cells[i - 1], cells[i]))
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean isStep(CellGrid grid, int from, int to)
+    {
+        if (grid.tunnel(from) == to)
+            return true;
+        for (int dir : grid.dirs)
+            if (grid.move(from, dir) == to)
+                return true;
+        return false;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        return o instanceof Path && Arrays.equals(cells, ((Path) o).cells);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Arrays.hashCode(cells);
+    }
+
+} // end of class Path
@@ -0,0 +1,163 @@
+package mazeSolver;
+
+import java.util.Arrays;
+
+/**
+ * Indexed monotone radix heap over int cell ids with non-negative long keys.
+ *
+ * Keys pushed must not be smaller than the last key popped, which always holds
+ * for Dijkstra's algorithm with non-negative costs. Bucket i > 0 holds the
+ * ids whose key first differs from the last key popped at bit i - 1, and
+ * bucket 0 the ids whose key equals it. Buckets are doubly linked lists
+ * threaded through per-id arrays, so inserting and lowering a key are O(1)
+ * and an id moves to a lower bucket at most 64 times. All storage is
+ * allocated once in the constructor.
+ */
+class RadixHeap
+{
+    private static final int NUM_BUCKETS = 65;
+
+    private final long key[];
+    private final int next[];
+    private final int prev[];
+    // bucket holding each id, -1 if the id is not in the heap
+    private final int bucketOf[];
+    private final int head[] = new int[NUM_BUCKETS];
+    private long last = 0;
+    private int size = 0;
+
+    /**
+     * @param capacity Number of distinct ids, i.e. ids are in [0, capacity).
+     */
+    RadixHeap(int capacity)
+    {
+        key = new long[capacity];
+        next = new int[capacity];
+        prev = new int[capacity];
+        bucketOf = new int[capacity];
+        Arrays.fill(bucketOf, -1);
+        Arrays.fill(head, -1);
+    }
+
+    /**
+     * @return The number of ids the heap was built for.
+     */
+    int capacity()
+    {
+        return key.length;
+    }
+
+    boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    boolean contains(int id)
+    {
+        return bucketOf[id] >= 0;
+    }
+
+    /**
+     * Remove every id and allow keys to start from 0 again, in O(size).
+     */
+    void clear()
+    {
+        for (int b = 0; b < NUM_BUCKETS; b++)
+        {
+            for (int id = head[b]; id >= 0; id = next[id])
+                bucketOf[id] = -1;
+            head[b] = -1;
+        }
+        last = 0;
+        size = 0;
+    }
+
+    /**
+     * Insert an id, or lower its key if it is already in the heap with a
+     * larger key.
+     *
+     * @param id Id to insert.
+     * @param k  Key, not smaller than the last key popped.
+     */
+    void push(int id, long k)
+    {
+        if (k < last)
+            throw new IllegalArgumentException("Key " + k + " is below the last key popped " + last + ".");
+
+        if (bucketOf[id] >= 0)
+        {
+            if (k >= key[id])
+                return;
+            unlink(id);
+        }
+        else
+            size++;
+        key[id] = k;
+        link(id, bucket(k));
+    }
+
+    /**
+     * Remove and return the id with the smallest key.
+     */
+    int pop()
+    {
+        if (head[0] < 0)
+        {
+            int b = 1;
+            while (head[b] < 0)
+                b++;
+
+            // the smallest key of the bucket becomes the last key, and every id of
+            // the bucket then falls into a lower bucket
+            long min = Long.MAX_VALUE;
+            for (int id = head[b]; id >= 0; id = next[id])
+                min = Math.min(min, key[id]);
+            last = min;
+            int id = head[b];
+            head[b] = -1;
+            while (id >= 0)
+            {
+                int following = next[id];
+                link(id, bucket(key[id]));
+                id = following;
+            }
+        }
+
+        int id = head[0];
+        unlink(id);
+        bucketOf[id] = -1;
+        size--;
+        return id;
+    }
+
+    private int bucket(long k)
+    {
+        return k == last ? 0 : 64 - Long.numberOfLeadingZeros(k ^ last);
+    }
+
+    private void link(int id, int b)
+    {
+        bucketOf[id] = b;
+        prev[id] = -1;
+        next[id] = head[b];
+        if (head[b] >= 0)
+            prev[head[b]] = id;
+        head[b] = id;
+    }
+
+    private void unlink(int id)
+    {
+        if (prev[id] >= 0)
+            next[prev[id]] = next[id];
+        else
+            head[bucketOf[id]] = next[id];
+        if (next[id] >= 0)
+            prev[next[id]] = prev[id];
+    }
+
+} // end of class RadixHeap
@@ -1,35 +1,106 @@
 package mazeSolver;
 
-import maze.Cell;
+import maze.CellGrid;
 import maze.Maze;
+import maze.Workspace;
 
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Random;
 
 /**
  * Implements the recursive backtracking maze solving algorithm.
+ *
+ * The recursion is run on an explicit stack of cell ids, so the depth of the
+ * search is bounded by the heap rather than by the Java call stack.
+ *
+ * By default the next direction is picked at random. In goal-directed mode
+ * the directions of a cell are tried in order of the Heuristic estimate of
+ * the cell they lead to, which takes tunnels into account, so the search
+ * heads for the exit first and only backtracks when a dead end forces it.
+ *
+ * The visited marks and the stack live in a Workspace kept between solves,
+ * so solving many mazes allocates nothing once it has seen the largest. If
+ * the workspace is shared, call path() before it is used by another run.
  */
 public class RecursiveBacktrackerSolver implements MazeSolver
 {
 
-    private boolean visited[][];
+    // bit of the remaining-directions mask that stands for the tunnel
+    private static final int TUNNEL_BIT = 1 << Maze.NUM_DIR;
+
+    // comparators (i, j) of a sorting network for 8 keys
+    private static final int NETWORK[] = {
+            0, 2, 1, 3, 4, 6, 5, 7,
+            0, 4, 1, 5, 2, 6, 3, 7,
+            0, 1, 2, 3, 4, 5, 6, 7,
+            2, 4, 3, 5,
+            1, 4, 3, 6,
+            1, 2, 3, 4, 5, 6 };
+
+    private final Random random = new Random();
+    private final boolean goalDirected;
+    // candidates of the cell being pushed, as (estimate << 3 | exit slot)
+    private final int keys[] = new int[8];
+    private final Workspace workspace;
+    private Heuristic heuristic;
+    private int stack[];
+    private int remaining[] = new int[0];
+    private int pathLength;
+    private CellGrid grid;
     private Maze maze;
     private boolean solved = false;
+    private Path path;
     private int cellsExplored;
 
     /**
-     * Function to call the recursive solver by passing the entrance cell
+     * Solver picking directions at random.
+     */
+    public RecursiveBacktrackerSolver()
+    {
+        this(false);
+    }
+
+    /**
+     * @param goalDirected Whether to try the directions closest to the exit
+     *                     first rather than at random.
+     */
+    public RecursiveBacktrackerSolver(boolean goalDirected)
+    {
+        this(goalDirected, new Workspace());
+    }
+
+    /**
+     * @param goalDirected Whether to try the directions closest to the exit
+     *                     first rather than at random.
+     * @param workspace    Workspace to keep the visited marks and the stack in.
+     */
+    public RecursiveBacktrackerSolver(boolean goalDirected, Workspace workspace)
+    {
+        this.goalDirected = goalDirected;
+        this.workspace = workspace;
+    }
+
+    /**
+     * Function to call the solver by passing the entrance cell
      *
      * @param maze The maze to solve.
      */
     @Override
     public void solveMaze(Maze maze)
     {
-        visited = new boolean[maze.sizeR][maze.sizeC];
         this.maze = maze;
+        grid = workspace.grid(maze);
+        workspace.begin(grid.numCells);
+        stack = workspace.stack();
+        if (remaining.length < grid.numCells)
+            remaining = new int[grid.numCells];
+        solved = false;
+        path = null;
+        pathLength = 0;
         cellsExplored = 0;
-        recursiveBackTracker(maze.entrance);
+        int goal = grid.id(maze.exit);
+        if (goalDirected && (heuristic == null || !heuristic.isFor(grid, goal)))
+            heuristic = new Heuristic(grid, goal);
+        recursiveBackTracker(grid.id(maze.entrance));
 
     } // end of solveMaze()
 
@@ -47,6 +118,23 @@ public class RecursiveBacktrackerSolver implements MazeSolver
         return cellsExplored;
     } // end of cellsExplored()
 
+
+    /**
+     * Copy the solution from the stack on the first call, and return the
+     * same path afterwards.
+     */
+    @Override
+    public Path path()
+    {
+        if (path == null && solved)
+        {
+            int cells[] = new int[pathLength];
+            System.arraycopy(stack, 0, cells, 0, pathLength);
+            path = new Path(cells);
+        }
+        return path;
+    } // end of path()
+
     /**
      * Algorithm: RBTS(cell)
      * ************************************************************************
@@ -59,98 +147,141 @@ public class RecursiveBacktrackerSolver implements MazeSolver
      * 5. RBTS(selected cell)
      * 6. Repeat from stem 3 until no more unvisited cells to go to.
      *
+     * Each frame of the stack holds a cell id and a bitmask of the directions
+     * of that cell that have not been tried yet; bit i stands for direction
+     * grid.dirs[i] and TUNNEL_BIT for the tunnel.
+     *
+     * In goal-directed mode step 3 picks the cell with the smallest estimate
+     * instead, and the frame holds the directions still to try in that order,
+     * see order().
      * ************************************************************************
-     * @param currentCell: The cell that is to be processed.
+     * @param start: Id of the cell that is to be processed first.
      */
-    private void recursiveBackTracker(Cell currentCell)
+    private void recursiveBackTracker(int start)
     {
-        setVisited(currentCell);
-        cellsExplored++;
-        maze.drawFtPrt(currentCell);
+        int allDirections = (1 << grid.dirs.length) - 1;
+        if (maze.type == Maze.TUNNEL)
+            allDirections |= TUNNEL_BIT;
 
-        if (currentCell == maze.exit)
+        int top = 0;
+        stack[0] = start;
+        remaining[0] = goalDirected ? order(start) : allDirections;
+        visit(start);
+        if (start == grid.id(maze.exit))
         {
-            this.solved = true;
+            solved = true;
+            pathLength = 1;
             return;
         }
 
-        ArrayList<Integer> directions = getDirections();
-        if (maze.type == Maze.TUNNEL)
-            directions.add(-1);
-
-        while (!solved && !directions.isEmpty())
+        while (top >= 0)
         {
-            int index = new Random().nextInt(directions.size());
-            int visitingDirection = directions.get(index);
-            directions.remove(index);
+            int currentCell = stack[top];
+            int mask = remaining[top];
+            if (mask == 0)
+            {
+                top--;
+                continue;
+            }
 
-            Cell nextCell = null;
-            if (visitingDirection < 0)
-                nextCell = currentCell.tunnelTo;
+            int nextCell;
+            if (goalDirected)
+            {
+                remaining[top] = mask >>> 3;
+                int slot = (mask & 7) - 1;
+                nextCell = (slot == grid.dirs.length)
+                        ? grid.tunnel(currentCell)
+                        : grid.move(currentCell, grid.dirs[slot]);
+            }
+            else
+            {
+                int bit = randomBit(mask);
+                remaining[top] = mask & ~bit;
+                nextCell = (bit == TUNNEL_BIT)
+                        ? grid.tunnel(currentCell)
+                        : grid.move(currentCell, grid.dirs[Integer.numberOfTrailingZeros(bit)]);
+            }
 
-            else if (!currentCell.wall[visitingDirection].present)
-                nextCell = currentCell.neigh[visitingDirection];
+            if (nextCell < 0 || workspace.isVisited(nextCell))
+                continue;
 
-
-            if (nextCell != null && !isVisited(nextCell))
-                recursiveBackTracker(nextCell);
+            visit(nextCell);
+            if (nextCell == grid.id(maze.exit))
+            {
+                solved = true;
+                // the stack holds the path from the entrance to the current cell
+                stack[top + 1] = nextCell;
+                pathLength = top + 2;
+                return;
+            }
+            top++;
+            stack[top] = nextCell;
+            remaining[top] = goalDirected ? order(nextCell) : allDirections;
         }
     }
 
     /**
-     * Generates a list of possible move directions based on the type of maze.
+     * Mark a cell as visited and draw its footprint.
      *
-     * @return : ArrayList of possible move directions.
+     * @param cell: Id of the cell.
      */
-    private ArrayList<Integer> getDirections()
+    private void visit(int cell)
     {
-        ArrayList<Integer> directions;
-
-        if (maze.type == Maze.HEX)
-        {
-            directions = new ArrayList<>(
-                    Arrays.asList(Maze.EAST, Maze.NORTHEAST, Maze.NORTHWEST,
-                            Maze.WEST, Maze.SOUTHWEST, Maze.SOUTHEAST));
-        }
-        else
-        {
-            directions = new ArrayList<>(
-                    Arrays.asList(Maze.EAST, Maze.NORTH, Maze.WEST,
-                            Maze.SOUTH));
-        }
-
-        return directions;
+        workspace.visit(cell);
+        cellsExplored++;
+        maze.drawFtPrt(grid.cell(cell));
     }
 
     /**
-     * Map cell position to a 2D array based on the type of maze.
+     * Order the exits of a cell leading to unvisited cells by the estimate of
+     * those cells, using a fixed sorting network over the keys array.
      *
-     * @param row: Row position of the cell
-     * @return : Column position on the 2D array.
+     * @param cell: Id of the cell.
+     * @return : The exit slots plus one, 3 bits each, the first to try in the
+     * lowest bits; 0 once all have been tried.
      */
-    private int hexMapping(int row)
+    private int order(int cell)
     {
-        return (maze.type == Maze.HEX) ? (row + 1) / 2 : 0;
-    }
+        int numExits = maze.type == Maze.TUNNEL ? grid.dirs.length + 1 : grid.dirs.length;
+        int count = 0;
+        for (int e = 0; e < numExits; e++)
+        {
+            int next = e < grid.dirs.length ? grid.move(cell, grid.dirs[e]) : grid.tunnel(cell);
+            if (next >= 0 && !workspace.isVisited(next))
+                keys[count++] = heuristic.estimate(next) << 3 | e;
+        }
+        if (count <= 1)
+            return count == 0 ? 0 : (keys[0] & 7) + 1;
 
-    /**
-     * Set the marked status of a cell.
-     *
-     * @param cell: Cell to set the marked status
-     */
-    private void setVisited(Cell cell)
-    {
-        visited[cell.r][cell.c - hexMapping(cell.r)] = true;
+        for (int i = count; i < keys.length; i++)
+            keys[i] = Integer.MAX_VALUE;
+        for (int k = 0; k < NETWORK.length; k += 2)
+        {
+            int a = keys[NETWORK[k]];
+            int b = keys[NETWORK[k + 1]];
+            if (a > b)
+            {
+                keys[NETWORK[k]] = b;
+                keys[NETWORK[k + 1]] = a;
+            }
+        }
+
+        int order = 0;
+        for (int i = count - 1; i >= 0; i--)
+            order = order << 3 | ((keys[i] & 7) + 1);
+        return order;
     }
 
     /**
-     * Get the marked status of a cell
+     * Pick one of the set bits of a mask uniformly at random.
      *
-     * @param cell: Cell to check the marked status
-     * @return : Visited status of Cell
+     * @param mask: Non-zero bitmask.
+     * @return : A mask with only the selected bit set.
      */
-    private boolean isVisited(Cell cell)
+    private int randomBit(int mask)
     {
-        return visited[cell.r][cell.c - hexMapping(cell.r)];
+        for (int skip = random.nextInt(Integer.bitCount(mask)); skip > 0; skip--)
+            mask &= mask - 1;
+        return Integer.lowestOneBit(mask);
     }
 } // end of class RecursiveBackTrackerSolver
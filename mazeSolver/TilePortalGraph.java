@@ -0,0 +1,280 @@
+package mazeSolver;
+
+import maze.CellGrid;
+import maze.Workspace;
+
+import java.util.Arrays;
+
+/**
+ * Abstract graph of a maze cut into square tiles, used for hierarchical
+ * path finding (HPA*).
+ *
+ * A portal is a cell with an open wall into another tile; portals and tunnel
+ * ends are the nodes of the graph. Edges are
+ *   - STEP edges of length 1: a move between two portals of adjacent tiles,
+ *     or a tunnel, which can join tiles that are far apart;
+ *   - TILE edges: the length of the shortest path between two nodes of the
+ *     same tile that stays inside the tile, computed once when the graph is
+ *     built.
+ * Every path of the maze splits into moves between tiles, tunnels and runs
+ * inside one tile, so shortest paths over the graph are shortest paths of the
+ * maze. The graph describes the maze as it was when built; build a new one
+ * after changing walls.
+ */
+public class TilePortalGraph
+{
+
+    static final byte STEP = 0;
+    static final byte TILE = 1;
+
+    final CellGrid grid;
+    final int tileSize;
+    final int tileCols;
+    final int numNodes;
+    final int nodeOf[];
+    final int nodeCell[];
+    // nodes are numbered tile by tile: the nodes of tile t are tileStart[t] to tileStart[t + 1] - 1
+    final int tileStart[];
+    final int edgeStart[];
+    final int edgeTarget[];
+    final int edgeLength[];
+    final byte edgeKind[];
+    final int tunnelEnds[];
+
+    /**
+     * Cut a maze into tiles and precompute the distances inside every tile.
+     *
+     * @param grid     The maze.
+     * @param tileSize Number of rows and of columns of a tile.
+     */
+    public TilePortalGraph(CellGrid grid, int tileSize)
+    {
+        if (tileSize < 1)
+            throw new IllegalArgumentException("Tile size must be at least 1.");
+
+        this.grid = grid;
+        this.tileSize = tileSize;
+        tileCols = (grid.sizeC + tileSize - 1) / tileSize;
+        int numTiles = ((grid.sizeR + tileSize - 1) / tileSize) * tileCols;
+        int numCells = grid.numCells;
+        tunnelEnds = Heuristic.tunnelEnds(grid);
+
+        // find the nodes and count them per tile
+        boolean isNode[] = new boolean[numCells];
+        tileStart = new int[numTiles + 1];
+        for (int cell = 0; cell < numCells; cell++)
+        {
+            boolean node = grid.tunnel(cell) >= 0;
+            for (int d = 0; d < grid.dirs.length && !node; d++)
+            {
+                int next = grid.move(cell, grid.dirs[d]);
+                node = next >= 0 && tile(next) != tile(cell);
+            }
+            if (node)
+            {
+                isNode[cell] = true;
+                tileStart[tile(cell) + 1]++;
+            }
+        }
+        for (int t = 0; t < numTiles; t++)
+            tileStart[t + 1] += tileStart[t];
+        numNodes = tileStart[numTiles];
+
+        nodeOf = new int[numCells];
+        nodeCell = new int[numNodes];
+        Arrays.fill(nodeOf, -1);
+        int fill[] = Arrays.copyOf(tileStart, numTiles);
+        for (int cell = 0; cell < numCells; cell++)
+        {
+            if (isNode[cell])
+            {
+                int node = fill[tile(cell)]++;
+                nodeOf[cell] = node;
+                nodeCell[node] = cell;
+            }
+        }
+
+        // edges of every node, in compressed rows; the arrays grow as needed
+        LocalSearch search = new LocalSearch(this);
+        edgeStart = new int[numNodes + 1];
+        int target[] = new int[4 * numNodes + 4];
+        int length[] = new int[target.length];
+        byte kind[] = new byte[target.length];
+        int edge = 0;
+        for (int node = 0; node < numNodes; node++)
+        {
+            edgeStart[node] = edge;
+            int cell = nodeCell[node];
+            int tile = tile(cell);
+            int tileNodes = tileStart[tile + 1] - tileStart[tile];
+            if (edge + grid.dirs.length + 1 + tileNodes > target.length)
+            {
+                int capacity = Math.max(2 * target.length, edge + grid.dirs.length + 1 + tileNodes);
+                target = Arrays.copyOf(target, capacity);
+                length = Arrays.copyOf(length, capacity);
+                kind = Arrays.copyOf(kind, capacity);
+            }
+
+            for (int e = 0; e <= grid.dirs.length; e++)
+            {
+                int next = e < grid.dirs.length ? grid.move(cell, grid.dirs[e]) : grid.tunnel(cell);
+                if (next >= 0 && (e == grid.dirs.length || tile(next) != tile))
+                {
+                    target[edge] = nodeOf[next];
+                    length[edge] = 1;
+                    kind[edge++] = STEP;
+                }
+            }
+
+            search.run(cell, -1);
+            for (int other = tileStart[tile]; other < tileStart[tile + 1]; other++)
+            {
+                int d = search.distance(nodeCell[other]);
+                if (other != node && d >= 0)
+                {
+                    target[edge] = other;
+                    length[edge] = d;
+                    kind[edge++] = TILE;
+                }
+            }
+        }
+        edgeStart[numNodes] = edge;
+        edgeTarget = Arrays.copyOf(target, edge);
+        edgeLength = Arrays.copyOf(length, edge);
+        edgeKind = Arrays.copyOf(kind, edge);
+    }
+
+    /**
+     * @return Number of nodes, i.e. portals and tunnel ends.
+     */
+    public int numNodes()
+    {
+        return numNodes;
+    }
+
+    /**
+     * @return Number of edges, counting each one in both directions.
+     */
+    public int numEdges()
+    {
+        return edgeTarget.length;
+    }
+
+    /**
+     * @return Number of rows and columns of a tile.
+     */
+    public int tileSize()
+    {
+        return tileSize;
+    }
+
+    /**
+     * @param cell Id of a cell.
+     * @return Index of the tile holding the cell.
+     */
+    int tile(int cell)
+    {
+        int r = cell / grid.sizeC;
+        int c = cell - r * grid.sizeC;
+        return (r / tileSize) * tileCols + c / tileSize;
+    }
+
+    /**
+     * Breadth-first search that does not leave the tile it starts in and does
+     * not take tunnels. It runs in a Workspace, whose visited marks are cleared
+     * in O(1), so a new search costs only the cells of the tile it visits.
+     */
+    static class LocalSearch
+    {
+        final TilePortalGraph graph;
+        private final Workspace workspace = new Workspace();
+        private final int distance[];
+        private final int parent[];
+        private final int queue[];
+        int cellsVisited;
+        // number of cells visited by the last search
+        int numVisited;
+
+        LocalSearch(TilePortalGraph graph)
+        {
+            this.graph = graph;
+            int numCells = graph.grid.numCells;
+            workspace.begin(numCells);
+            distance = workspace.distance();
+            parent = workspace.parent();
+            queue = new int[Math.min(numCells, graph.tileSize * graph.tileSize)];
+        }
+
+        /**
+         * Search from a cell, stopping early once target is reached.
+         *
+         * @param source Id of the cell to search from.
+         * @param target Id of a cell to stop at, or -1 to search the whole tile.
+         */
+        void run(int source, int target)
+        {
+            CellGrid grid = graph.grid;
+            workspace.begin(grid.numCells);
+            int tile = graph.tile(source);
+            int head = 0, tail = 0;
+            queue[tail++] = source;
+            workspace.visit(source);
+            distance[source] = 0;
+            parent[source] = source;
+            while (head < tail)
+            {
+                int cell = queue[head++];
+                for (int dir : grid.dirs)
+                {
+                    int next = grid.move(cell, dir);
+                    if (next < 0 || workspace.isVisited(next) || graph.tile(next) != tile)
+                        continue;
+                    workspace.visit(next);
+                    distance[next] = distance[cell] + 1;
+                    parent[next] = cell;
+                    queue[tail++] = next;
+                    if (next == target)
+                    {
+                        head = tail;
+                        break;
+                    }
+                }
+            }
+            numVisited = tail;
+            cellsVisited += tail;
+        }
+
+        /**
+         * @param i Position in the order of the last search, below numVisited.
+         * @return Id of the i-th cell visited by the last search.
+         */
+        int visited(int i)
+        {
+            return queue[i];
+        }
+
+        /**
+         * @return Distance from the source of the last search, or -1 if the
+         * cell was not reached.
+         */
+        int distance(int cell)
+        {
+            return workspace.isVisited(cell) ? distance[cell] : -1;
+        }
+
+        /**
+         * Write the path from the source of the last search to a cell it
+         * reached, source excluded, into cells[at + 1 ... at + distance].
+         *
+         * @return Position of the last cell written.
+         */
+        int writePath(int cell, int cells[], int at)
+        {
+            int end = at + distance[cell];
+            for (int i = end, c = cell; i > at; i--, c = parent[c])
+                cells[i] = c;
+            return end;
+        }
+    }
+
+} // end of class TilePortalGraph
@@ -0,0 +1,173 @@
+package mazeSolver;
+
+import maze.CellAccess;
+
+/**
+ * Answers distance and path queries between any two cells of a perfect maze
+ * without searching, after a one-off preprocessing of the maze.
+ *
+ * A perfect maze is a spanning tree of its cells, so the path between two
+ * cells goes up from each of them to their lowest common ancestor (LCA) in
+ * the tree rooted at the entrance. The LCA is found in O(1) with a sparse
+ * table of range minima over the depths of the cells in DFS preorder.
+ *
+ * Preprocessing takes O(n log n) time and n log n ints of memory, n being the
+ * number of cells. Queries do not allocate, except for the returned path.
+ * The oracle describes the maze as it was when built; build a new one after
+ * changing walls.
+ */
+public class TreePathOracle
+{
+
+    private final int root;
+    private final int parent[];
+    private final int depth[];
+    // position of each cell in DFS preorder
+    private final int preorder[];
+    // sparse[k][i] is the cell of smallest depth among the 2^k cells that
+    // follow each other in preorder from position i
+    private final int sparse[][];
+
+    /**
+     * Root the maze at its entrance and build the LCA tables.
+     *
+     * @param access Read-only view of the maze.
+     * @throws IllegalArgumentException If the maze is not perfect, i.e. its
+     * open walls and tunnels do not form a spanning tree of the cells.
+     */
+    public TreePathOracle(CellAccess access)
+    {
+        int numCells = access.numCells();
+        int dirs[] = CellAccess.directions(access.type());
+        root = access.entrance();
+        parent = new int[numCells];
+        depth = new int[numCells];
+        preorder = new int[numCells];
+        int order[] = new int[numCells];
+        boolean seen[] = new boolean[numCells];
+
+        // iterative DFS; a cell is given its preorder position when popped
+        int stack[] = new int[numCells];
+        int top = 0;
+        stack[top++] = root;
+        parent[root] = root;
+        seen[root] = true;
+        int count = 0;
+        while (top > 0)
+        {
+            int cell = stack[--top];
+            preorder[cell] = count;
+            order[count++] = cell;
+
+            boolean parentSkipped = (cell == root);
+            for (int e = 0; e <= dirs.length; e++)
+            {
+                int next = e < dirs.length ? access.move(cell, dirs[e]) : access.tunnel(cell);
+                if (next < 0)
+                    continue;
+                if (next == parent[cell] && !parentSkipped)
+                {
+                    parentSkipped = true;
+                    continue;
+                }
+                if (seen[next])
+                    throw new IllegalArgumentException("The maze has a loop, it is not perfect.");
+                seen[next] = true;
+                parent[next] = cell;
+                depth[next] = depth[cell] + 1;
+                stack[top++] = next;
+            }
+        }
+        if (count != numCells)
+            throw new IllegalArgumentException("Some cells cannot be reached, the maze is not perfect.");
+
+        int levels = 32 - Integer.numberOfLeadingZeros(numCells);
+        sparse = new int[levels][];
+        sparse[0] = order;
+        for (int k = 1; k < levels; k++)
+        {
+            int half = 1 << (k - 1);
+            int prev[] = sparse[k - 1];
+            int row[] = new int[numCells - (1 << k) + 1];
+            for (int i = 0; i < row.length; i++)
+                row[i] = shallower(prev[i], prev[i + half]);
+            sparse[k] = row;
+        }
+    }
+
+    /**
+     * @param a Id of a cell.
+     * @param b Id of a cell.
+     * @return Id of the lowest common ancestor of the two cells in the tree
+     * rooted at the entrance.
+     */
+    public int lca(int a, int b)
+    {
+        if (a == b)
+            return a;
+
+        int from = Math.min(preorder[a], preorder[b]) + 1;
+        int to = Math.max(preorder[a], preorder[b]);
+        int k = 31 - Integer.numberOfLeadingZeros(to - from + 1);
+        // the shallowest cell strictly after the first one in preorder is a
+        // child of the LCA on the way to the second one
+        return parent[shallower(sparse[k][from], sparse[k][to - (1 << k) + 1])];
+    }
+
+    /**
+     * @param from Id of a cell.
+     * @param to   Id of a cell.
+     * @return Number of moves on the path between the two cells; the Path
+     * between them has one more cell than that.
+     */
+    public int distance(int from, int to)
+    {
+        return depth[from] + depth[to] - 2 * depth[lca(from, to)];
+    }
+
+    /**
+     * Build the path between two cells in time proportional to its length.
+     *
+     * @param from Id of the first cell of the path.
+     * @param to   Id of the last cell of the path.
+     * @return The only path from one cell to the other.
+     */
+    public Path path(int from, int to)
+    {
+        int top = lca(from, to);
+        int cells[] = new int[depth[from] + depth[to] - 2 * depth[top] + 1];
+
+        int i = 0;
+        for (int c = from; c != top; c = parent[c])
+            cells[i++] = c;
+        cells[i] = top;
+        int j = cells.length - 1;
+        for (int c = to; c != top; c = parent[c])
+            cells[j--] = c;
+        return new Path(cells);
+    }
+
+    /**
+     * @param cell Id of a cell.
+     * @return Number of moves between the entrance and the cell.
+     */
+    public int depth(int cell)
+    {
+        return depth[cell];
+    }
+
+    /**
+     * @param cell Id of a cell.
+     * @return The next cell on the way to the entrance, or the entrance itself.
+     */
+    public int parent(int cell)
+    {
+        return parent[cell];
+    }
+
+    private int shallower(int a, int b)
+    {
+        return depth[a] <= depth[b] ? a : b;
+    }
+
+} // end of class TreePathOracle
@@ -0,0 +1,209 @@
+package mazeSolver;
+
+import maze.CellAccess;
+import maze.CellGrid;
+import maze.Maze;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Implements Tremaux's maze solving algorithm, which, unlike the wall
+ * follower, finds the exit of any maze: mazes with loops, and tunnels that
+ * jump to a cell far away.
+ */
+public class TremauxSolver implements MazeSolver
+{
+
+    private boolean solved = false;
+    private int cellsExplored;
+    private Path path;
+
+    // marks of the last walk, kept for path()
+    private CellAccess access;
+    private int dirs[];
+    private long marks[];
+
+    /**
+     * Solve the maze through its CellGrid view, drawing footprints as the
+     * walk goes.
+     *
+     * @param maze The maze to solve.
+     */
+    @Override
+    public void solveMaze(Maze maze)
+    {
+        CellGrid grid = new CellGrid(maze);
+        solve(grid, cell -> maze.drawFtPrt(grid.cell(cell)));
+    } // end of solveMaze()
+
+    /**
+     * Algorithm: Tremaux
+     * ************************************************************************
+     * Every exit of a cell (a direction or the tunnel) carries a mark of 0, 1
+     * or 2. Marking an exit when leaving or entering through it is like the
+     * chalk mark on the floor of a passage in the classic description.
+     * 1. Start at the entrance.
+     * 2. If the cell is the exit
+     *      2.1. STOP
+     * 3. If the cell was seen before and the passage just walked was new
+     *    (it now has 1 mark), go back through it.
+     * 4. Otherwise leave through an open exit with no mark, or failing that
+     *    through one with a single mark. Never use an exit with 2 marks.
+     * 5. Mark the exit left and the exit entered on the next cell, and
+     *    repeat from step 2. If no exit can be taken, the exit of the maze
+     *    cannot be reached.
+     *
+     * The marks take 2 bits per exit of a cell; nothing else is kept between
+     * steps but the current cell and the exit it was entered through. When
+     * the exit is reached, the passages marked once form the route from the
+     * entrance, which path() follows.
+     * ************************************************************************
+     *
+     * @param access      Read-only view of the maze.
+     * @param footprints  Receives the id of every cell stepped on, in order,
+     *                    with repeats when the walk comes back to a cell.
+     * @return True if the exit was reached. Otherwise false.
+     */
+    public boolean solve(CellAccess access, IntConsumer footprints)
+    {
+        int dirs[] = CellAccess.directions(access.type());
+        int numExits = dirs.length + 1;
+        long marks[] = new long[(int) (((long) access.numCells() * numExits * 2 + 63) >>> 6)];
+        this.access = access;
+        this.dirs = dirs;
+        this.marks = marks;
+        int exit = access.exit();
+        int cell = access.entrance();
+        int arrivedBy = -1;
+        solved = false;
+        path = null;
+        cellsExplored = 1;
+        footprints.accept(cell);
+
+        while (cell != exit)
+        {
+            int leaveBy = -1;
+            if (arrivedBy >= 0)
+            {
+                int base = cell * numExits;
+                addMark(marks, base + arrivedBy);
+                if (getMark(marks, base + arrivedBy) == 1 && isSeen(marks, base, numExits, arrivedBy))
+                    leaveBy = arrivedBy;
+            }
+
+            if (leaveBy < 0)
+                leaveBy = leastMarkedExit(access, dirs, marks, cell);
+            if (leaveBy < 0)
+                return false;
+
+            addMark(marks, cell * numExits + leaveBy);
+            int next = WallFollowerSolver.follow(access, dirs, cell, leaveBy);
+            arrivedBy = WallFollowerSolver.backExit(leaveBy, dirs.length);
+            cell = next;
+            // a cell none of whose exits is marked is stepped on for the first time
+            if (!isSeen(marks, cell * numExits, numExits, -1))
+                cellsExplored++;
+            footprints.accept(cell);
+        }
+
+        solved = true;
+        return true;
+    }
+
+    /**
+     * Open exit with the fewest marks, ignoring exits with 2 marks.
+     *
+     * @return : Index of the exit, or -1 if there is none.
+     */
+    private int leastMarkedExit(CellAccess access, int dirs[], long marks[], int cell)
+    {
+        int numExits = dirs.length + 1;
+        int best = -1;
+        int bestMark = 2;
+        for (int e = 0; e < numExits && bestMark > 0; e++)
+        {
+            int mark = getMark(marks, cell * numExits + e);
+            if (mark < bestMark && WallFollowerSolver.follow(access, dirs, cell, e) >= 0)
+            {
+                best = e;
+                bestMark = mark;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return : True if any exit of the cell other than the given one is marked.
+     */
+    private static boolean isSeen(long marks[], int base, int numExits, int except)
+    {
+        for (int e = 0; e < numExits; e++)
+            if (e != except && getMark(marks, base + e) > 0)
+                return true;
+        return false;
+    }
+
+    private static int getMark(long marks[], int slot)
+    {
+        long bit = (long) slot << 1;
+        return (int) (marks[(int) (bit >>> 6)] >>> (bit & 63)) & 3;
+    }
+
+    private static void addMark(long marks[], int slot)
+    {
+        long bit = (long) slot << 1;
+        int mark = getMark(marks, slot);
+        if (mark < 2)
+            marks[(int) (bit >>> 6)] += 1L << (bit & 63);
+    }
+
+
+    @Override
+    public boolean isSolved()
+    {
+        return solved;
+    } // end of isSolved()
+
+
+    /**
+     * Number of distinct cells stepped on, counting the entrance.
+     */
+    @Override
+    public int cellsExplored()
+    {
+        return cellsExplored;
+    } // end of cellsExplored()
+
+
+    /**
+     * Follow the exits marked once from the entrance on the first call, and
+     * return the same path afterwards.
+     */
+    @Override
+    public Path path()
+    {
+        if (path == null && solved)
+        {
+            int numExits = dirs.length + 1;
+            int cells[] = new int[access.numCells()];
+            int length = 0;
+            int cell = access.entrance();
+            int arrivedBy = -1;
+            cells[length++] = cell;
+            while (cell != access.exit())
+            {
+                int leaveBy = -1;
+                for (int e = 0; e < numExits && leaveBy < 0; e++)
+                    if (e != arrivedBy && getMark(marks, cell * numExits + e) == 1)
+                        leaveBy = e;
+                cell = WallFollowerSolver.follow(access, dirs, cell, leaveBy);
+                arrivedBy = WallFollowerSolver.backExit(leaveBy, dirs.length);
+                cells[length++] = cell;
+            }
+            path = new Path(Arrays.copyOf(cells, length));
+        }
+        return path;
+    } // end of path()
+
+} // end of class TremauxSolver
@@ -0,0 +1,153 @@
+package mazeSolver;
+
+import maze.CellAccess;
+import maze.CellGrid;
+import maze.Maze;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Implements the wall follower maze solving algorithm, using a constant
+ * amount of memory whatever the size of the maze.
+ */
+public class WallFollowerSolver implements MazeSolver
+{
+
+    private boolean solved = false;
+    private int cellsExplored;
+
+    /**
+     * Solve the maze through its CellGrid view, drawing footprints as the
+     * walk goes.
+     *
+     * @param maze The maze to solve.
+     */
+    @Override
+    public void solveMaze(Maze maze)
+    {
+        CellGrid grid = new CellGrid(maze);
+        solve(grid, cell -> maze.drawFtPrt(grid.cell(cell)));
+    } // end of solveMaze()
+
+    /**
+     * Algorithm: wall follower
+     * ************************************************************************
+     * Every cell has a cyclic order of exits: the directions of the maze in
+     * counterclockwise order, followed by the tunnel. Walls are skipped.
+     * 1. Start at the entrance as if arrived through its first walled exit.
+     * 2. If the cell is the exit
+     *      2.1. STOP
+     * 3. Leave through the first open exit that follows, in the cyclic
+     *    order, the exit the cell was entered through. Going around the
+     *    directions counterclockwise from the way back keeps the right hand
+     *    on the wall.
+     * 4. Repeat from step 2. If the entrance is left through the same exit
+     *    as the first time, the walk is a closed loop and the exit cannot be
+     *    found this way.
+     *
+     * On a perfect maze, tunnels included, the walk goes around the whole
+     * spanning tree, so it always reaches the exit. On mazes with loops it
+     * may circle an island forever, hence the check in step 4.
+     * Only the current cell and the exit it was entered through are kept.
+     * ************************************************************************
+     *
+     * @param access      Read-only view of the maze.
+     * @param footprints  Receives the id of every cell stepped on, in order,
+     *                    with repeats when the walk comes back to a cell.
+     * @return True if the exit was reached. Otherwise false.
+     */
+    public boolean solve(CellAccess access, IntConsumer footprints)
+    {
+        int dirs[] = CellAccess.directions(access.type());
+        int numExits = dirs.length + 1;
+        int exit = access.exit();
+        int cell = access.entrance();
+        solved = false;
+        cellsExplored = 1;
+        footprints.accept(cell);
+
+        if (cell == exit)
+        {
+            solved = true;
+            return true;
+        }
+
+        int arrivedBy = 0;
+        while (arrivedBy < dirs.length && access.move(cell, dirs[arrivedBy]) >= 0)
+            arrivedBy++;
+
+        int firstExit = -1;
+        while (true)
+        {
+            int next = -1;
+            int leaveBy = arrivedBy;
+            for (int i = 1; i <= numExits && next < 0; i++)
+            {
+                leaveBy = (arrivedBy + i) % numExits;
+                next = follow(access, dirs, cell, leaveBy);
+            }
+            if (next < 0)
+                return false;
+
+            if (cell == access.entrance())
+            {
+                if (leaveBy == firstExit)
+                    return false;
+                if (firstExit < 0)
+                    firstExit = leaveBy;
+            }
+
+            arrivedBy = backExit(leaveBy, dirs.length);
+            cell = next;
+            cellsExplored++;
+            footprints.accept(cell);
+            if (cell == exit)
+            {
+                solved = true;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Cell reached through an exit of a cell.
+     *
+     * @param exit: Index into dirs, or dirs.length for the tunnel.
+     * @return : Id of the cell reached, or -1 if the exit is closed.
+     */
+    static int follow(CellAccess access, int dirs[], int cell, int exit)
+    {
+        return exit < dirs.length ? access.move(cell, dirs[exit]) : access.tunnel(cell);
+    }
+
+    /**
+     * Exit of the cell reached through which the walk would come back.
+     *
+     * @param exit: Exit taken, index into the directions or numDirs for the tunnel.
+     * @param numDirs: Number of directions of the maze.
+     * @return : Exit of the cell reached that leads back.
+     */
+    static int backExit(int exit, int numDirs)
+    {
+        return exit < numDirs ? (exit + numDirs / 2) % numDirs : numDirs;
+    }
+
+
+    @Override
+    public boolean isSolved()
+    {
+        return solved;
+    } // end of isSolved()
+
+
+    /**
+     * Number of steps walked, counting the entrance; cells walked through
+     * more than once are counted every time.
+     */
+    @Override
+    public int cellsExplored()
+    {
+        return cellsExplored;
+    } // end of cellsExplored()
+
+} // end of class WallFollowerSolver
@@ -0,0 +1,168 @@
+package mazeSolver;
+
+import maze.CellGrid;
+import maze.Maze;
+
+import java.util.Arrays;
+
+/**
+ * Solves a maze with traversal costs by Dijkstra's algorithm, finding the
+ * path of smallest total cost rather than the one with fewest cells.
+ *
+ * Costs come from the optional layers maze.cellCost and maze.tunnelCost; a
+ * maze without them is solved with every move costing 1. The costs are read
+ * into flat arrays once per solve, and the search uses a radix heap, so each
+ * cell costs O(1) amortised plus the moves of its key between buckets.
+ */
+public class WeightedDijkstraSolver implements MazeSolver
+{
+
+    private CellGrid grid;
+    private RadixHeap open;
+    private long distance[];
+    private int parent[];
+    private int enterCost[];
+    private int tunnelCost[];
+    private int start;
+    private int goal;
+    private boolean solved = false;
+    private Path path;
+    private int cellsExplored;
+
+    /**
+     * Algorithm: Dijkstra with a radix heap
+     * ************************************************************************
+     * 1. Put the entrance in the heap with cost 0.
+     * 2. Remove the cell with the smallest cost from the heap and mark it as
+     *    explored.
+     * 3. If the cell is the exit
+     *      3.1. STOP
+     * 4. For every neighbour towards which there is no wall, reached for the
+     *    neighbour's cell cost, and the other end of the tunnel if there is
+     *    one, reached for the tunnel cost:
+     *      4.1. If it can be reached more cheaply than known so far, record
+     *           the cost and the parent, and insert it or lower its key.
+     * 5. Repeat from step 2 until the heap is empty.
+     *
+     * Costs are not negative, so keys never go below the last key removed,
+     * which is what the radix heap needs.
+     * ************************************************************************
+     *
+     * @param maze The maze to solve.
+     */
+    @Override
+    public void solveMaze(Maze maze)
+    {
+        grid = new CellGrid(maze);
+        start = grid.id(maze.entrance);
+        goal = grid.id(maze.exit);
+        solved = false;
+        path = null;
+        cellsExplored = 0;
+
+        int numCells = grid.numCells;
+        if (open == null || open.capacity() != numCells)
+        {
+            open = new RadixHeap(numCells);
+            distance = new long[numCells];
+            parent = new int[numCells];
+            enterCost = new int[numCells];
+            tunnelCost = new int[numCells];
+        }
+        else
+            open.clear();
+        Arrays.fill(distance, Long.MAX_VALUE);
+        for (int id = 0; id < numCells; id++)
+        {
+            enterCost[id] = grid.cost(id);
+            tunnelCost[id] = grid.tunnelCost(id);
+            if (enterCost[id] < 0 || tunnelCost[id] < 0)
+                throw new IllegalArgumentException("Costs must not be negative.");
+        }
+
+        int dirs[] = grid.dirs;
+        // only TUNNEL mazes have a tunnel exit to look at
+        int numExits = grid.type == Maze.TUNNEL ? dirs.length + 1 : dirs.length;
+        distance[start] = 0;
+        parent[start] = start;
+        open.push(start, 0);
+        while (!open.isEmpty())
+        {
+            int cell = open.pop();
+            cellsExplored++;
+            maze.drawFtPrt(grid.cell(cell));
+            if (cell == goal)
+            {
+                solved = true;
+                break;
+            }
+
+            for (int e = 0; e < numExits; e++)
+            {
+                int next;
+                long d;
+                if (e < dirs.length)
+                {
+                    next = grid.move(cell, dirs[e]);
+                    if (next < 0)
+                        continue;
+                    d = distance[cell] + enterCost[next];
+                }
+                else
+                {
+                    next = grid.tunnel(cell);
+                    if (next < 0)
+                        continue;
+                    d = distance[cell] + tunnelCost[cell];
+                }
+                if (d < distance[next])
+                {
+                    distance[next] = d;
+                    parent[next] = cell;
+                    open.push(next, d);
+                }
+            }
+        }
+        open.clear();
+    } // end of solveMaze()
+
+    /**
+     * @return Total cost of the solution, or -1 if the maze is not solved.
+     */
+    public long cost()
+    {
+        return solved ? distance[goal] : -1;
+    }
+
+
+    @Override
+    public boolean isSolved()
+    {
+        return solved;
+    } // end of isSolved()
+
+
+    @Override
+    public int cellsExplored()
+    {
+        return cellsExplored;
+    } // end of cellsExplored()
+
+
+    @Override
+    public Path path()
+    {
+        if (path == null && solved)
+        {
+            int length = 1;
+            for (int cell = goal; cell != start; cell = parent[cell])
+                length++;
+            int cells[] = new int[length];
+            for (int i = length - 1, cell = goal; i >= 0; i--, cell = parent[cell])
+                cells[i] = cell;
+            path = new Path(cells);
+        }
+        return path;
+    } // end of path()
+
+} // end of class WeightedDijkstraSolver